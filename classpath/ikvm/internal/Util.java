@@ -11,6 +11,10 @@ public final class Util
 
     public static final boolean WINDOWS;
     public static final boolean MACOSX;
+    public static final boolean LINUX;
+    // e_machine of the process (EM_X86_64, EM_AARCH64, ...) on little endian Linux, 0 elsewhere
+    // or if it can't be read, for the open(2) flags that depend on the architecture
+    public static final int LINUX_MACHINE;
 
     static
     {
@@ -22,21 +26,78 @@ public final class Util
             case cli.System.PlatformID.WinCE:
                 WINDOWS = true;
                 MACOSX = false;
+                LINUX = false;
                 break;
             case cli.System.PlatformID.MacOSX:
                 WINDOWS = false;
                 MACOSX = true;
+                LINUX = false;
                 break;
             case cli.System.PlatformID.Unix:
                 WINDOWS = false;
                 // as of version 2.6, Mono still returns Unix when running on MacOSX
                 MACOSX = "Darwin".equals(MonoUtils.unameProperty("sysname"));
+                LINUX = !MACOSX && isLinux();
                 break;
             default:
                 WINDOWS = false;
                 MACOSX = false;
+                LINUX = false;
                 break;
         }
+        LINUX_MACHINE = LINUX ? elfMachine() : 0;
+    }
+
+    // the other Unix flavors don't have /proc/sys/kernel/ostype
+    private static boolean isLinux()
+    {
+        try
+        {
+            if (false) throw new cli.System.Exception();
+            return cli.System.IO.File.ReadAllText("/proc/sys/kernel/ostype").startsWith("Linux");
+        }
+        catch (cli.System.Exception _)
+        {
+            return false;
+        }
+    }
+
+    // the e_machine field of the ELF header of the executable
+    private static int elfMachine()
+    {
+        try
+        {
+            if (false) throw new cli.System.Exception();
+            byte[] header = new byte[20];
+            cli.System.IO.FileStream fs = cli.System.IO.File.OpenRead("/proc/self/exe");
+            try
+            {
+                int n = 0;
+                while (n < header.length)
+                {
+                    int r = fs.Read(header, n, header.length - n);
+                    if (r <= 0)
+                    {
+                        return 0;
+                    }
+                    n += r;
+                }
+            }
+            finally
+            {
+                fs.Close();
+            }
+            if (header[5] != 1)
+            {
+                // not little endian
+                return 0;
+            }
+            return (header[18] & 0xFF) | (header[19] & 0xFF) << 8;
+        }
+        catch (cli.System.Exception _)
+        {
+            return 0;
+        }
     }
 
     public static boolean rangeCheck(int arrayLength, int offset, int length)
@@ -0,0 +1,106 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package ikvm.lang;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Lightweight threads are {@link Thread} objects that don't get a native
+ * thread of their own. When started they are handed to an idle native thread
+ * of IKVM's thread pool (the one that {@code -Dikvm.thread.pool=true} uses for
+ * all threads), so starting one usually costs no thread creation and teardown.
+ * A new native thread is only created when none is idle.
+ * <p>
+ * While running, a lightweight thread is a normal Java thread:
+ * {@code Thread.currentThread()} returns it, and {@code ThreadLocal}s, the
+ * context class loader, interrupts, priority, name and {@code join} all belong
+ * to it. Lightweight threads are daemon threads by default.
+ * {@code Thread.stop} only has an effect before the thread starts running.
+ * <p>
+ * The CLR has no continuations, so a lightweight thread that blocks (in
+ * {@code LockSupport.park}, {@code Thread.sleep}, {@code Object.wait} or socket
+ * I/O) keeps its native thread until it finishes. The native threads are not
+ * shared with the CLR thread pool, so blocked lightweight threads don't starve
+ * it, but each one that is blocked still holds a native thread and its stack.
+ */
+public final class LightweightThreads
+{
+    private static final ThreadFactory factory = new ThreadFactory() {
+        public Thread newThread(Runnable task)
+        {
+            return LightweightThreads.newThread(task);
+        }
+    };
+
+    private static final Executor executor = new Executor() {
+        public void execute(Runnable task)
+        {
+            start(task);
+        }
+    };
+
+    private LightweightThreads()
+    {
+    }
+
+    /**
+     * Creates an unstarted lightweight thread that runs {@code task}.
+     */
+    public static Thread newThread(Runnable task)
+    {
+        return ThreadHelper.newLightweightThread(task);
+    }
+
+    /**
+     * Creates and starts a lightweight thread that runs {@code task}.
+     */
+    public static Thread start(Runnable task)
+    {
+        Thread t = newThread(task);
+        t.start();
+        return t;
+    }
+
+    /**
+     * Returns whether {@code t} is a lightweight thread.
+     */
+    public static boolean isLightweight(Thread t)
+    {
+        return ThreadHelper.isLightweight(t);
+    }
+
+    /**
+     * Returns a thread factory that creates lightweight threads.
+     */
+    public static ThreadFactory factory()
+    {
+        return factory;
+    }
+
+    /**
+     * Returns an executor that runs each task in a new lightweight thread.
+     */
+    public static Executor executor()
+    {
+        return executor;
+    }
+}
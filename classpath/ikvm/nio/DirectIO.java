@@ -0,0 +1,77 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package ikvm.nio;
+
+import java.nio.ByteBuffer;
+import sun.nio.ch.DirectBuffer;
+
+/**
+ * Helpers for files opened with {@link FileOpenOption#DIRECT}.
+ */
+public final class DirectIO
+{
+    /**
+     * An alignment that satisfies the block size of common devices.
+     */
+    public static final int DEFAULT_ALIGNMENT = 4096;
+
+    private DirectIO()
+    {
+    }
+
+    /**
+     * Allocates a direct byte buffer whose start address is a multiple of
+     * {@code alignment}.
+     *
+     * @throws IllegalArgumentException if capacity is negative or alignment
+     *         is not a positive power of two
+     */
+    public static ByteBuffer allocateAligned(int capacity, int alignment)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException("capacity < 0: " + capacity);
+        }
+        if (alignment <= 0 || (alignment & (alignment - 1)) != 0)
+        {
+            throw new IllegalArgumentException("alignment is not a power of two: " + alignment);
+        }
+        ByteBuffer buf = ByteBuffer.allocateDirect(capacity + alignment - 1);
+        long address = ((DirectBuffer)buf).address();
+        int offset = (int)(-address & (alignment - 1));
+        buf.position(offset);
+        buf.limit(offset + capacity);
+        return buf.slice();
+    }
+
+    /**
+     * Tells whether the buffer's current position is at an address that is
+     * a multiple of {@code alignment}.
+     */
+    public static boolean isAligned(ByteBuffer buf, int alignment)
+    {
+        if (!(buf instanceof DirectBuffer))
+        {
+            return false;
+        }
+        return ((((DirectBuffer)buf).address() + buf.position()) & (alignment - 1)) == 0;
+    }
+}
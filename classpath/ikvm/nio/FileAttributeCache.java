@@ -0,0 +1,100 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package ikvm.nio;
+
+import java.nio.file.Path;
+import sun.nio.fs.NetAttributeCache;
+
+/**
+ * Statistics and control for the file attribute cache of the default file
+ * system.
+ * <p>
+ * The cache is disabled by default. Set the system property
+ * {@code ikvm.nio.attributeCache.ttl} to the number of milliseconds an entry
+ * stays valid to enable it, and {@code ikvm.nio.attributeCache.maxEntries} to
+ * bound its size (default 8192). Changes made through {@code java.nio.file}
+ * invalidate the affected entries immediately; changes made by other
+ * processes become visible after the TTL or when a {@code WatchService}
+ * watching the directory reports them.
+ */
+public final class FileAttributeCache
+{
+    private FileAttributeCache()
+    {
+    }
+
+    /**
+     * Returns true if the cache is enabled.
+     */
+    public static boolean isEnabled()
+    {
+        return NetAttributeCache.getTimeToLive() != 0;
+    }
+
+    /**
+     * Returns the time an entry stays valid, in milliseconds.
+     */
+    public static long getTimeToLive()
+    {
+        return NetAttributeCache.getTimeToLive();
+    }
+
+    /**
+     * Returns the number of attribute lookups answered from the cache.
+     */
+    public static long getHitCount()
+    {
+        return NetAttributeCache.getHitCount();
+    }
+
+    /**
+     * Returns the number of attribute lookups that went to the file system.
+     */
+    public static long getMissCount()
+    {
+        return NetAttributeCache.getMissCount();
+    }
+
+    /**
+     * Returns the number of cached entries.
+     */
+    public static int size()
+    {
+        return NetAttributeCache.size();
+    }
+
+    /**
+     * Drops the cached attributes of {@code path} (and of its parent
+     * directory), for example after the file was changed by other means.
+     */
+    public static void invalidate(Path path)
+    {
+        NetAttributeCache.invalidate(path.toString());
+    }
+
+    /**
+     * Drops all cached entries and resets the statistics.
+     */
+    public static void clear()
+    {
+        NetAttributeCache.clear();
+    }
+}
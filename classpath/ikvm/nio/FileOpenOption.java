@@ -0,0 +1,77 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package ikvm.nio;
+
+import java.nio.file.OpenOption;
+
+/**
+ * Additional options for opening a {@link java.nio.channels.FileChannel} on
+ * the default file system.
+ * <p>
+ * Write-through behavior is already available as
+ * {@link java.nio.file.StandardOpenOption#DSYNC DSYNC} and
+ * {@link java.nio.file.StandardOpenOption#SYNC SYNC}, which are mapped to
+ * {@code FileOptions.WriteThrough}.
+ */
+public enum FileOpenOption implements OpenOption
+{
+    /**
+     * Bypasses the operating system's page cache ({@code O_DIRECT} on Linux
+     * x86, x64, ARM and ARM64, {@code F_NOCACHE} on Mac OS X,
+     * {@code FILE_FLAG_NO_BUFFERING} on Windows). Opening a file with this
+     * option throws {@code UnsupportedOperationException} on other platforms.
+     * Implies {@link #NOBUFFER}.
+     * Transfers must use direct buffers whose address, as well as the file
+     * position and the number of bytes, are multiples of the device block
+     * size; see {@link DirectIO#allocateAligned(int, int)}.
+     */
+    DIRECT,
+
+    /**
+     * Disables the managed buffer of the underlying {@code FileStream}. This
+     * is now the default for all file channels, the option is accepted for
+     * compatibility.
+     */
+    NOBUFFER,
+
+    /**
+     * Hints that the file will be accessed sequentially from beginning to end
+     * ({@code FileOptions.SequentialScan}).
+     */
+    SEQUENTIAL,
+
+    /**
+     * Hints that the file will be accessed randomly
+     * ({@code FileOptions.RandomAccess}).
+     */
+    RANDOM,
+
+    /**
+     * Coalesces concurrent {@link java.nio.channels.FileChannel#force force}
+     * calls on the channel (group commit). A call that arrives while a sync is
+     * in progress waits for the next sync, which covers all writes made before
+     * the call, so many threads appending to one journal share a single sync.
+     * The leader of a group can wait for more callers for the number of
+     * microseconds given by the {@code ikvm.nio.groupCommitWindow} system
+     * property (default 0).
+     */
+    GROUP_COMMIT;
+}
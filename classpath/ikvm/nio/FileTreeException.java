@@ -0,0 +1,59 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package ikvm.nio;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Thrown by {@link FileTrees} when one or more entries of a tree could not be
+ * copied or deleted. The operation continues with the rest of the tree, so
+ * this exception reports every failure, ordered by path. Each failure is also
+ * added as a suppressed exception.
+ */
+public class FileTreeException extends IOException
+{
+    private static final long serialVersionUID = 1L;
+
+    private final SortedMap<Path, IOException> failures;
+
+    public FileTreeException(String message, Map<Path, IOException> failures)
+    {
+        super(message);
+        this.failures = Collections.unmodifiableSortedMap(new TreeMap<Path, IOException>(failures));
+        for (IOException x : this.failures.values())
+        {
+            addSuppressed(x);
+        }
+    }
+
+    /**
+     * Returns the failed paths and their exceptions, ordered by path.
+     */
+    public SortedMap<Path, IOException> getFailures()
+    {
+        return failures;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package ikvm.nio;
+
+import java.io.IOException;
+import java.nio.file.CopyOption;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import sun.nio.fs.NetFileTrees;
+
+/**
+ * Bulk operations on directory trees of the default file system.
+ * <p>
+ * Directories are processed in parallel on a dedicated fork/join pool, which
+ * pays off on file systems with high per-file latency (network shares, SSDs
+ * with deep queues) and trees with many small files. Symbolic links are never
+ * followed; they are copied as links (on Linux) and deleted as links. The same
+ * goes for junctions and other reparse points on Windows, which are deleted
+ * without touching their target; a copy reports them as failures.
+ * <p>
+ * A failure doesn't stop the operation. When it completes, a
+ * {@link FileTreeException} lists every path that could not be processed.
+ * When a delete fails for an entry, its parent directories are left in place.
+ */
+public final class FileTrees
+{
+    private FileTrees()
+    {
+    }
+
+    /**
+     * Recursively copies {@code source} to {@code target}, using as many
+     * threads as there are processors.
+     *
+     * @param options {@link StandardCopyOption#REPLACE_EXISTING} to overwrite
+     *        existing files (existing directories are merged),
+     *        {@link StandardCopyOption#COPY_ATTRIBUTES} to copy timestamps and
+     *        permissions
+     */
+    public static void copyTree(Path source, Path target, CopyOption... options) throws IOException
+    {
+        copyTree(source, target, Runtime.getRuntime().availableProcessors(), options);
+    }
+
+    /**
+     * Recursively copies {@code source} to {@code target}, using at most
+     * {@code parallelism} threads.
+     */
+    public static void copyTree(Path source, Path target, int parallelism, CopyOption... options) throws IOException
+    {
+        boolean replaceExisting = false;
+        boolean copyAttributes = false;
+        for (CopyOption option : options)
+        {
+            if (option == StandardCopyOption.REPLACE_EXISTING)
+            {
+                replaceExisting = true;
+            }
+            else if (option == StandardCopyOption.COPY_ATTRIBUTES)
+            {
+                copyAttributes = true;
+            }
+            else if (option != LinkOption.NOFOLLOW_LINKS)
+            {
+                if (option == null)
+                {
+                    throw new NullPointerException();
+                }
+                throw new UnsupportedOperationException("Unsupported copy option: " + option);
+            }
+        }
+        NetFileTrees.copyTree(source, target, parallelism, replaceExisting, copyAttributes);
+    }
+
+    /**
+     * Recursively deletes {@code path}, using as many threads as there are
+     * processors.
+     */
+    public static void deleteTree(Path path) throws IOException
+    {
+        deleteTree(path, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Recursively deletes {@code path}, using at most {@code parallelism}
+     * threads.
+     */
+    public static void deleteTree(Path path, int parallelism) throws IOException
+    {
+        NetFileTrees.deleteTree(path, parallelism);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package ikvm.nio;
+
+import java.io.Closeable;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketAddress;
+import java.net.SocketImpl;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.security.AccessController;
+import java.security.PrivilegedExceptionAction;
+import sun.nio.ch.Net;
+import sun.nio.ch.SelChImpl;
+
+/**
+ * A group of server socket channels that are bound to the same local address
+ * with {@code SO_REUSEPORT}, each registered for {@code OP_ACCEPT} with its own
+ * {@link Selector}. The kernel distributes incoming connections over the
+ * listeners, so every acceptor can be driven by its own thread instead of
+ * funneling all accepts through a single queue and selector thread.
+ * <p>
+ * {@code SO_REUSEPORT} is currently only supported on Linux, see
+ * {@link #isSupported()}.
+ */
+public final class ReusePortAcceptors implements Closeable
+{
+    private final ServerSocketChannel[] channels;
+    private final Selector[] selectors;
+
+    private ReusePortAcceptors(ServerSocketChannel[] channels, Selector[] selectors)
+    {
+        this.channels = channels;
+        this.selectors = selectors;
+    }
+
+    /**
+     * Tells whether {@code SO_REUSEPORT} is supported on this platform.
+     */
+    public static boolean isSupported()
+    {
+        return Net.isReusePortAvailable();
+    }
+
+    /**
+     * Enables or disables {@code SO_REUSEPORT} on a server socket channel.
+     * This must be done before the channel is bound.
+     *
+     * @throws UnsupportedOperationException if the platform doesn't support {@code SO_REUSEPORT}
+     */
+    public static void setReusePort(ServerSocketChannel channel, boolean on) throws IOException
+    {
+        Net.setReusePort(fdOf(channel), on);
+    }
+
+    /**
+     * Tells whether {@code SO_REUSEPORT} is enabled on a server socket channel.
+     *
+     * @throws UnsupportedOperationException if the platform doesn't support {@code SO_REUSEPORT}
+     */
+    public static boolean getReusePort(ServerSocketChannel channel) throws IOException
+    {
+        return Net.getReusePort(fdOf(channel));
+    }
+
+    /**
+     * Enables or disables {@code SO_REUSEPORT} on a server socket.
+     * This must be done before the socket is bound.
+     *
+     * @throws UnsupportedOperationException if the platform doesn't support {@code SO_REUSEPORT}
+     */
+    public static void setReusePort(ServerSocket socket, boolean on) throws IOException
+    {
+        if (socket.getChannel() != null)
+        {
+            setReusePort(socket.getChannel(), on);
+        }
+        else
+        {
+            Net.setReusePort(fdOf(socket), on);
+        }
+    }
+
+    /**
+     * Opens {@code count} server socket channels with {@code SO_REUSEPORT}, binds
+     * them to {@code local} and registers each non-blocking channel with its own
+     * selector. If {@code local} has port 0, all listeners share the ephemeral
+     * port that is assigned to the first one.
+     *
+     * @throws UnsupportedOperationException if the platform doesn't support {@code SO_REUSEPORT}
+     */
+    public static ReusePortAcceptors open(SocketAddress local, int count, int backlog) throws IOException
+    {
+        if (count < 1)
+        {
+            throw new IllegalArgumentException("count < 1: " + count);
+        }
+        if (!isSupported())
+        {
+            throw new UnsupportedOperationException("SO_REUSEPORT not supported");
+        }
+        ServerSocketChannel[] channels = new ServerSocketChannel[count];
+        Selector[] selectors = new Selector[count];
+        ReusePortAcceptors acceptors = new ReusePortAcceptors(channels, selectors);
+        try
+        {
+            for (int i = 0; i < count; i++)
+            {
+                ServerSocketChannel ch = channels[i] = ServerSocketChannel.open();
+                setReusePort(ch, true);
+                ch.bind(local, backlog);
+                if (i == 0 && local instanceof InetSocketAddress && ((InetSocketAddress)local).getPort() == 0)
+                {
+                    local = new InetSocketAddress(((InetSocketAddress)local).getAddress(),
+                        ((InetSocketAddress)ch.getLocalAddress()).getPort());
+                }
+                ch.configureBlocking(false);
+                selectors[i] = Selector.open();
+                ch.register(selectors[i], SelectionKey.OP_ACCEPT);
+            }
+        }
+        catch (IOException | RuntimeException x)
+        {
+            acceptors.close();
+            throw x;
+        }
+        return acceptors;
+    }
+
+    /**
+     * Returns the number of listeners.
+     */
+    public int size()
+    {
+        return channels.length;
+    }
+
+    /**
+     * Returns the server socket channel of listener {@code index}.
+     */
+    public ServerSocketChannel channel(int index)
+    {
+        return channels[index];
+    }
+
+    /**
+     * Returns the selector with which listener {@code index} is registered.
+     */
+    public Selector selector(int index)
+    {
+        return selectors[index];
+    }
+
+    /**
+     * Closes all listeners and their selectors.
+     */
+    public void close() throws IOException
+    {
+        IOException failure = null;
+        for (int i = 0; i < channels.length; i++)
+        {
+            try
+            {
+                if (selectors[i] != null)
+                {
+                    selectors[i].close();
+                }
+                if (channels[i] != null)
+                {
+                    channels[i].close();
+                }
+            }
+            catch (IOException x)
+            {
+                if (failure == null)
+                {
+                    failure = x;
+                }
+                else
+                {
+                    failure.addSuppressed(x);
+                }
+            }
+        }
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+
+    private static FileDescriptor fdOf(ServerSocketChannel channel)
+    {
+        return ((SelChImpl)channel).getFD();
+    }
+
+    private static FileDescriptor fdOf(final ServerSocket socket) throws IOException
+    {
+        try
+        {
+            return AccessController.doPrivileged(new PrivilegedExceptionAction<FileDescriptor>() {
+                public FileDescriptor run() throws Exception
+                {
+                    Method getImpl = ServerSocket.class.getDeclaredMethod("getImpl");
+                    getImpl.setAccessible(true);
+                    SocketImpl impl = (SocketImpl)getImpl.invoke(socket);
+                    Method getFileDescriptor = SocketImpl.class.getDeclaredMethod("getFileDescriptor");
+                    getFileDescriptor.setAccessible(true);
+                    return (FileDescriptor)getFileDescriptor.invoke(impl);
+                }
+            });
+        }
+        catch (java.security.PrivilegedActionException x)
+        {
+            Throwable cause = x.getCause();
+            if (cause instanceof java.lang.reflect.InvocationTargetException)
+            {
+                cause = cause.getCause();
+            }
+            if (cause instanceof IOException)
+            {
+                throw (IOException)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
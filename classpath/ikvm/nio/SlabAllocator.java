@@ -0,0 +1,454 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package ikvm.nio;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.security.AccessController;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import sun.misc.JavaNioAccess;
+import sun.misc.SharedSecrets;
+import sun.misc.Unsafe;
+import sun.nio.ch.DirectBuffer;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * A size-class slab allocator for direct {@link ByteBuffer}s.
+ * <p>
+ * Native memory is obtained in large chunks, each of which is carved into
+ * equally sized slots of one size class (powers of two between 1 KB and
+ * 64 KB). Freed slots go to a small per-thread cache first and overflow to
+ * a shared free list, so the common allocate/release cycle neither calls
+ * into the native allocator nor depends on finalization.
+ * <p>
+ * Buffers are reference counted. {@link #allocate(int)} returns a buffer
+ * with a reference count of one, {@link #retain(ByteBuffer)} increments it and
+ * {@link #release(ByteBuffer)} decrements it; the memory is returned to the
+ * pool when the count drops to zero. Slices and duplicates share the count
+ * of the buffer they were created from. Accessing a buffer after its memory
+ * has been released is an error that is not detected. Unlike
+ * {@link ByteBuffer#allocateDirect(int)} the contents of a newly allocated
+ * buffer are undefined.
+ * <p>
+ * Requests larger than the largest size class are served by
+ * {@code ByteBuffer.allocateDirect} and {@code release} is a no-op for them.
+ * <p>
+ * Setting the system property {@code ikvm.nio.slab.leakDetection} to
+ * {@code true} records the allocation site of every pooled buffer and
+ * reports (and reclaims) buffers that became unreachable without being
+ * released.
+ */
+public final class SlabAllocator
+{
+    private static final int MIN_SHIFT = 10;                // 1 KB
+    private static final int MAX_SHIFT = 16;                // 64 KB
+    private static final int CHUNK_SIZE = 1 << 20;          // 1 MB
+    private static final int THREAD_CACHE_SIZE = 32;
+
+    private static final Unsafe unsafe = Unsafe.getUnsafe();
+    private static final JavaNioAccess nioAccess = SharedSecrets.getJavaNioAccess();
+    private static final boolean leakDetection = Boolean.parseBoolean(
+        AccessController.doPrivileged(new GetPropertyAction("ikvm.nio.slab.leakDetection")));
+
+    private static final SlabAllocator DEFAULT = new SlabAllocator();
+
+    private final SizeClass[] sizeClasses = new SizeClass[MAX_SHIFT - MIN_SHIFT + 1];
+    private final ThreadLocal<ThreadCache> threadCache = new ThreadLocal<ThreadCache>() {
+        @Override
+        protected ThreadCache initialValue()
+        {
+            return new ThreadCache(SlabAllocator.this);
+        }
+    };
+
+    // statistics
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalCapacity = new AtomicLong();
+    private final AtomicLong memoryUsed = new AtomicLong();
+    private final AtomicLong leaks = new AtomicLong();
+
+    // leak detection
+    private final ReferenceQueue<ByteBuffer> leakQueue;
+    private final ConcurrentHashMap<LeakTracker, Boolean> trackers;
+
+    private SlabAllocator()
+    {
+        for (int i = 0; i < sizeClasses.length; i++)
+        {
+            sizeClasses[i] = new SizeClass(this, 1 << (MIN_SHIFT + i));
+        }
+        if (leakDetection)
+        {
+            leakQueue = new ReferenceQueue<ByteBuffer>();
+            trackers = new ConcurrentHashMap<LeakTracker, Boolean>();
+        }
+        else
+        {
+            leakQueue = null;
+            trackers = null;
+        }
+    }
+
+    /**
+     * Returns the process wide allocator.
+     */
+    public static SlabAllocator getDefault()
+    {
+        return DEFAULT;
+    }
+
+    /**
+     * Returns the largest capacity that is served from the pool.
+     */
+    public static int maxPooledCapacity()
+    {
+        return 1 << MAX_SHIFT;
+    }
+
+    /**
+     * Allocates a direct byte buffer of the given capacity. The buffer's
+     * position is zero, its limit is its capacity and its byte order is
+     * {@link java.nio.ByteOrder#BIG_ENDIAN BIG_ENDIAN}.
+     *
+     * @throws IllegalArgumentException if capacity is negative
+     */
+    public ByteBuffer allocate(int capacity)
+    {
+        if (capacity < 0)
+        {
+            throw new IllegalArgumentException("capacity < 0: " + capacity);
+        }
+        if (capacity > maxPooledCapacity())
+        {
+            return ByteBuffer.allocateDirect(capacity);
+        }
+        if (leakQueue != null)
+        {
+            reclaimLeaks();
+        }
+        SizeClass sc = sizeClasses[sizeClassIndex(capacity)];
+        long address = threadCache.get().pop(sc);
+        if (address == 0)
+        {
+            address = sc.pop();
+        }
+        Slot slot = new Slot(sc, address, capacity);
+        ByteBuffer buf = nioAccess.newDirectByteBuffer(address, capacity, slot);
+        count.incrementAndGet();
+        totalCapacity.addAndGet(capacity);
+        if (leakQueue != null)
+        {
+            slot.tracker = new LeakTracker(buf, slot, leakQueue);
+            trackers.put(slot.tracker, Boolean.TRUE);
+        }
+        return buf;
+    }
+
+    /**
+     * Increments the reference count of a buffer returned by {@link #allocate(int)}
+     * (or of a slice or duplicate of such a buffer).
+     *
+     * @throws IllegalStateException if the buffer has already been released
+     */
+    public void retain(ByteBuffer buf)
+    {
+        Slot slot = slotOf(buf);
+        if (slot != null)
+        {
+            for (;;)
+            {
+                int refs = slot.refCnt.get();
+                if (refs == 0)
+                {
+                    throw new IllegalStateException("buffer already released");
+                }
+                if (slot.refCnt.compareAndSet(refs, refs + 1))
+                {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Decrements the reference count of a buffer returned by {@link #allocate(int)}
+     * (or of a slice or duplicate of such a buffer) and returns its memory to the
+     * pool when the count reaches zero.
+     *
+     * @return {@code true} if the memory was returned to the pool
+     * @throws IllegalStateException if the buffer has already been released
+     */
+    public boolean release(ByteBuffer buf)
+    {
+        Slot slot = slotOf(buf);
+        if (slot == null)
+        {
+            return false;
+        }
+        for (;;)
+        {
+            int refs = slot.refCnt.get();
+            if (refs == 0)
+            {
+                throw new IllegalStateException("buffer already released");
+            }
+            if (slot.refCnt.compareAndSet(refs, refs - 1))
+            {
+                if (refs != 1)
+                {
+                    return false;
+                }
+                break;
+            }
+        }
+        if (slot.tracker != null)
+        {
+            trackers.remove(slot.tracker);
+            slot.tracker.clear();
+        }
+        free(slot);
+        return true;
+    }
+
+    /**
+     * Returns the number of buffers leaked since startup (only tracked
+     * when leak detection is enabled).
+     */
+    public long getLeakCount()
+    {
+        return leaks.get();
+    }
+
+    /**
+     * Returns a view of the allocator's statistics, used by
+     * {@code sun.management.ManagementFactoryHelper} to create the
+     * "slab" {@code BufferPoolMXBean}.
+     */
+    @ikvm.lang.Internal
+    public static JavaNioAccess.BufferPool getBufferPool()
+    {
+        return new JavaNioAccess.BufferPool() {
+            @Override
+            public String getName()
+            {
+                return "slab";
+            }
+            @Override
+            public long getCount()
+            {
+                return DEFAULT.count.get();
+            }
+            @Override
+            public long getTotalCapacity()
+            {
+                return DEFAULT.totalCapacity.get();
+            }
+            @Override
+            public long getMemoryUsed()
+            {
+                return DEFAULT.memoryUsed.get();
+            }
+        };
+    }
+
+    private void free(Slot slot)
+    {
+        count.decrementAndGet();
+        totalCapacity.addAndGet(-slot.capacity);
+        threadCache.get().push(slot.sizeClass, slot.address);
+    }
+
+    private void reclaimLeaks()
+    {
+        LeakTracker tracker;
+        while ((tracker = (LeakTracker)leakQueue.poll()) != null)
+        {
+            if (trackers.remove(tracker) != null && tracker.slot.refCnt.getAndSet(0) != 0)
+            {
+                leaks.incrementAndGet();
+                System.err.println("LEAK: direct ByteBuffer of capacity " + tracker.slot.capacity
+                    + " was garbage collected without being released");
+                tracker.allocationSite.printStackTrace();
+                free(tracker.slot);
+            }
+        }
+    }
+
+    private static int sizeClassIndex(int capacity)
+    {
+        if (capacity <= (1 << MIN_SHIFT))
+        {
+            return 0;
+        }
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+    }
+
+    private static Slot slotOf(ByteBuffer buf)
+    {
+        if (!(buf instanceof DirectBuffer))
+        {
+            return null;
+        }
+        // slices and duplicates have the buffer they were created from as attachment
+        Object att = ((DirectBuffer)buf).attachment();
+        while (att instanceof DirectBuffer)
+        {
+            att = ((DirectBuffer)att).attachment();
+        }
+        return att instanceof Slot ? (Slot)att : null;
+    }
+
+    private static final class Slot
+    {
+        final SizeClass sizeClass;
+        final long address;
+        final int capacity;
+        final AtomicInteger refCnt = new AtomicInteger(1);
+        LeakTracker tracker;
+
+        Slot(SizeClass sizeClass, long address, int capacity)
+        {
+            this.sizeClass = sizeClass;
+            this.address = address;
+            this.capacity = capacity;
+        }
+    }
+
+    private static final class LeakTracker extends WeakReference<ByteBuffer>
+    {
+        final Slot slot;
+        final Throwable allocationSite = new Throwable("allocation site");
+
+        LeakTracker(ByteBuffer buf, Slot slot, ReferenceQueue<ByteBuffer> queue)
+        {
+            super(buf, queue);
+            this.slot = slot;
+        }
+    }
+
+    // the shared free list of a size class, refilled a chunk at a time
+    private static final class SizeClass
+    {
+        private final SlabAllocator allocator;
+        final int slotSize;
+        private long[] free = new long[CHUNK_SIZE >> MIN_SHIFT];
+        private int top;
+
+        SizeClass(SlabAllocator allocator, int slotSize)
+        {
+            this.allocator = allocator;
+            this.slotSize = slotSize;
+        }
+
+        synchronized long pop()
+        {
+            if (top == 0)
+            {
+                refill();
+            }
+            return free[--top];
+        }
+
+        synchronized void push(long[] addresses, int count)
+        {
+            if (top + count > free.length)
+            {
+                free = java.util.Arrays.copyOf(free, Math.max(free.length * 2, top + count));
+            }
+            System.arraycopy(addresses, 0, free, top, count);
+            top += count;
+        }
+
+        private void refill()
+        {
+            long chunk = unsafe.allocateMemory(CHUNK_SIZE);
+            allocator.memoryUsed.addAndGet(CHUNK_SIZE);
+            int slots = CHUNK_SIZE / slotSize;
+            if (slots > free.length)
+            {
+                free = java.util.Arrays.copyOf(free, slots);
+            }
+            // hand out the lowest addresses first
+            for (int i = slots - 1; i >= 0; i--)
+            {
+                free[top++] = chunk + (long)i * slotSize;
+            }
+        }
+    }
+
+    // per-thread cache of free slots, which returns its contents to
+    // the shared free lists when the thread is gone
+    private static final class ThreadCache
+    {
+        private final SlabAllocator allocator;
+        private final long[][] slots = new long[MAX_SHIFT - MIN_SHIFT + 1][THREAD_CACHE_SIZE];
+        private final int[] counts = new int[MAX_SHIFT - MIN_SHIFT + 1];
+
+        ThreadCache(SlabAllocator allocator)
+        {
+            this.allocator = allocator;
+        }
+
+        long pop(SizeClass sc)
+        {
+            int index = sizeClassIndex(sc.slotSize);
+            int n = counts[index];
+            if (n == 0)
+            {
+                return 0;
+            }
+            counts[index] = n - 1;
+            return slots[index][n - 1];
+        }
+
+        void push(SizeClass sc, long address)
+        {
+            int index = sizeClassIndex(sc.slotSize);
+            long[] cache = slots[index];
+            int n = counts[index];
+            if (n == cache.length)
+            {
+                // move the older half to the shared free list
+                int half = n / 2;
+                sc.push(cache, half);
+                System.arraycopy(cache, half, cache, 0, n - half);
+                n -= half;
+            }
+            cache[n] = address;
+            counts[index] = n + 1;
+        }
+
+        protected void finalize()
+        {
+            for (int i = 0; i < counts.length; i++)
+            {
+                if (counts[i] != 0)
+                {
+                    allocator.sizeClasses[i].push(slots[i], counts[i]);
+                    counts[i] = 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package java.lang;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+ * [IKVM] Asynchronous output stream for System.out and System.err.
+ *
+ * Enabled with -Dikvm.console.async=true, System.err can be kept synchronous with
+ * -Dikvm.console.async.stderr=false. Writers copy their bytes into a ring buffer
+ * and return, a daemon thread writes the buffer to the console. Output is written
+ * at most ikvm.console.async.flushDelay milliseconds (default 10) after it was
+ * produced, or earlier when the buffer (ikvm.console.async.bufferSize bytes,
+ * default 256 KB) is half full. When the buffer is full the writer drains it
+ * itself, so output is never dropped. flush() doesn't wait for the output
+ * to be written, everything pending is written when a thread dies of an uncaught
+ * exception and at shutdown.
+ *
+ * Writers are serialized by the stream's lock (in practice that of the PrintStream),
+ * the ring buffer itself is single producer / single consumer and lock free.
+ */
+final class AsyncConsoleOutputStream extends OutputStream
+{
+    private static final int SHUTDOWN_SLOT = 9;
+
+    private static AsyncConsoleOutputStream[] instances = new AsyncConsoleOutputStream[0];
+    private static boolean registeredShutdown;
+    // set once the pending output has been written during shutdown, writes are synchronous after that
+    private static volatile boolean synchronous;
+
+    private final OutputStream out;
+    private final String name;
+    private final byte[] buf;
+    private final int mask;
+    private final int half;
+    private final long delayNanos;
+    // serializes writes to out (by the writer thread, flushAll and a writer that finds the buffer full)
+    private final Object drainLock = new Object();
+    // next byte to be written to out, only modified under drainLock
+    private volatile long head;
+    // next free byte, only modified by the producer
+    private volatile long tail;
+    private volatile boolean idle;
+    private volatile boolean closed;
+    private volatile IOException error;
+    private Thread writer;
+
+    private AsyncConsoleOutputStream(OutputStream out, String name)
+    {
+        this.out = out;
+        this.name = name;
+        int size = Integer.highestOneBit(Math.max(4096, Math.min(1 << 29, getIntProperty("ikvm.console.async.bufferSize", 256 * 1024)) * 2 - 1));
+        this.buf = new byte[size];
+        this.mask = size - 1;
+        this.half = size / 2;
+        this.delayNanos = Math.max(1, getIntProperty("ikvm.console.async.flushDelay", 10)) * 1000000L;
+        synchronized (AsyncConsoleOutputStream.class)
+        {
+            AsyncConsoleOutputStream[] list = new AsyncConsoleOutputStream[instances.length + 1];
+            System.arraycopy(instances, 0, list, 0, instances.length);
+            list[instances.length] = this;
+            instances = list;
+        }
+    }
+
+    private static int getIntProperty(String key, int def)
+    {
+        try
+        {
+            String value = Props.props.getProperty(key);
+            return value == null ? def : Integer.parseInt(value.trim());
+        }
+        catch (NumberFormatException _)
+        {
+            return def;
+        }
+    }
+
+    static boolean isEnabled(String name)
+    {
+        if (!Boolean.parseBoolean(Props.props.getProperty("ikvm.console.async")))
+        {
+            return false;
+        }
+        return !name.equals("stderr") || !"false".equalsIgnoreCase(Props.props.getProperty("ikvm.console.async.stderr"));
+    }
+
+    static PrintStream newPrintStream(FileOutputStream fos, String name, String enc)
+    {
+        AsyncConsoleOutputStream out = new AsyncConsoleOutputStream(fos, name);
+        if (enc != null)
+        {
+            try
+            {
+                return new PrintStream(out, true, enc);
+            }
+            catch (UnsupportedEncodingException _)
+            {
+            }
+        }
+        return new PrintStream(out, true);
+    }
+
+    public void write(int b) throws IOException
+    {
+        write(new byte[] { (byte)b }, 0, 1);
+    }
+
+    public synchronized void write(byte[] b, int off, int len) throws IOException
+    {
+        if ((off | len | (off + len) | (b.length - (off + len))) < 0)
+        {
+            throw new IndexOutOfBoundsException();
+        }
+        checkError();
+        if (writer == null)
+        {
+            startWriter();
+        }
+        while (len > 0)
+        {
+            long t = tail;
+            int used = (int)(t - head);
+            if (used == buf.length)
+            {
+                // the console can't keep up, write it ourself instead of waiting for the writer thread
+                drain();
+                continue;
+            }
+            int n = Math.min(len, buf.length - used);
+            int pos = (int)t & mask;
+            int first = Math.min(n, buf.length - pos);
+            System.arraycopy(b, off, buf, pos, first);
+            System.arraycopy(b, off + first, buf, 0, n - first);
+            // the volatile write publishes the bytes to the writer thread
+            tail = t + n;
+            off += n;
+            len -= n;
+            if (idle || (used < half && used + n >= half))
+            {
+                LockSupport.unpark(writer);
+            }
+        }
+        if (synchronous)
+        {
+            drain();
+        }
+    }
+
+    public void flush() throws IOException
+    {
+        // PrintStream flushes after every line, so this doesn't wait (the output
+        // is written within the flush delay)
+        checkError();
+    }
+
+    public void close() throws IOException
+    {
+        if (!closed)
+        {
+            closed = true;
+            synchronized (this)
+            {
+                LockSupport.unpark(writer);
+            }
+            try
+            {
+                drain();
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+    }
+
+    private void checkError() throws IOException
+    {
+        if (closed)
+        {
+            throw new IOException("Stream closed");
+        }
+        IOException x = error;
+        if (x != null)
+        {
+            error = null;
+            throw x;
+        }
+    }
+
+    // writes everything that is pending to the underlying stream
+    private void drain() throws IOException
+    {
+        synchronized (drainLock)
+        {
+            long h = head;
+            long t = tail;
+            if (h == t)
+            {
+                return;
+            }
+            int n = (int)(t - h);
+            int pos = (int)h & mask;
+            int first = Math.min(n, buf.length - pos);
+            try
+            {
+                out.write(buf, pos, first);
+                if (n > first)
+                {
+                    out.write(buf, 0, n - first);
+                }
+                out.flush();
+            }
+            finally
+            {
+                // on failure the output is dropped, like a PrintStream does
+                head = t;
+            }
+        }
+    }
+
+    private void drainAndRecordError()
+    {
+        try
+        {
+            drain();
+        }
+        catch (IOException x)
+        {
+            error = x;
+        }
+    }
+
+    private void startWriter()
+    {
+        registerShutdown();
+        writer = AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+            public Thread run() {
+                ThreadGroup group = Thread.currentThread().getThreadGroup();
+                for (ThreadGroup parent; (parent = group.getParent()) != null; ) {
+                    group = parent;
+                }
+                Thread thread = new Thread(group, new Runnable() {
+                    public void run() {
+                        writerLoop();
+                    }
+                }, "Console Writer (" + name + ")");
+                thread.setDaemon(true);
+                thread.start();
+                return thread;
+            }
+        });
+    }
+
+    private void writerLoop()
+    {
+        for (;;)
+        {
+            if (head == tail)
+            {
+                if (closed)
+                {
+                    return;
+                }
+                // the producer checks idle after publishing tail, so either it sees
+                // idle and unparks us, or we see the new tail here
+                idle = true;
+                if (head == tail && !closed)
+                {
+                    LockSupport.park(this);
+                }
+                idle = false;
+                continue;
+            }
+            // give the output some time to accumulate, unless the buffer is filling up
+            long deadline = System.nanoTime() + delayNanos;
+            long remaining;
+            while (!closed && tail - head < half && (remaining = deadline - System.nanoTime()) > 0)
+            {
+                LockSupport.parkNanos(this, remaining);
+            }
+            drainAndRecordError();
+        }
+    }
+
+    // writes all pending output, called when a thread dies of an uncaught exception
+    static void flushAll()
+    {
+        AsyncConsoleOutputStream[] list = instances;
+        for (int i = 0; i < list.length; i++)
+        {
+            list[i].drainAndRecordError();
+        }
+    }
+
+    private static void shutdown()
+    {
+        synchronous = true;
+        flushAll();
+    }
+
+    private static synchronized void registerShutdown()
+    {
+        if (registeredShutdown)
+        {
+            return;
+        }
+        registeredShutdown = true;
+        try
+        {
+            // the last slot, so that output of the application's shutdown hooks is written
+            Shutdown.add(SHUTDOWN_SLOT, true, new Runnable() {
+                public void run() {
+                    shutdown();
+                }
+            });
+        }
+        catch (IllegalStateException _)
+        {
+            // already shutting down
+            synchronous = true;
+        }
+        if (ikvm.internal.Util.MONO)
+        {
+            // Shutdown doesn't use AppDomain.ProcessExit on Mono, but writing the
+            // pending output doesn't require starting a thread
+            try
+            {
+                if (false) throw new cli.System.Security.SecurityException();
+                registerProcessExit();
+            }
+            catch (cli.System.Security.SecurityException _)
+            {
+            }
+        }
+    }
+
+    // AppDomain.ProcessExit has a LinkDemand, so we have to have a separate method
+    private static void registerProcessExit()
+    {
+        cli.System.AppDomain.get_CurrentDomain().add_ProcessExit(new cli.System.EventHandler(new cli.System.EventHandler.Method() {
+            public void Invoke(Object sender, cli.System.EventArgs e) {
+                shutdown();
+            }
+        }));
+    }
+}
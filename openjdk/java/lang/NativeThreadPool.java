@@ -0,0 +1,181 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package java.lang;
+
+import java.util.ArrayDeque;
+
+/*
+ * [IKVM] Pool of native threads for Thread.start().
+ *
+ * Enabled with -Dikvm.thread.pool=true, and always used for lightweight threads (see
+ * ikvm.lang.LightweightThreads). A started Thread is handed to an idle pooled native
+ * thread (or a new one, if none is idle) instead of getting a System.Threading.Thread of its
+ * own. After the Thread has died, the native thread waits up to ikvm.thread.pool.keepAlive
+ * milliseconds (default 60000) for the next one. At most ikvm.thread.pool.maxIdle native threads
+ * (default four per processor) are kept waiting, the others exit.
+ *
+ * The Java visible state (identity, name, daemon status, priority, ThreadLocals, interrupt status,
+ * join) belongs to the Thread object, as before. The native thread takes on the daemon status
+ * and priority of each Thread it runs, and its name when the CLR allows it to be renamed. .NET
+ * thread static state is not reset between Threads. Threads that are created with a stack size,
+ * and all threads when ikvm.apartmentstate is set, still get a native thread of their own.
+ */
+final class NativeThreadPool
+{
+    static final boolean enabled = Boolean.parseBoolean(Props.props.getProperty("ikvm.thread.pool"));
+    private static final int keepAliveMillis = getIntProperty("ikvm.thread.pool.keepAlive", 60000);
+    private static final int maxIdle = getIntProperty("ikvm.thread.pool.maxIdle", 4 * Runtime.getRuntime().availableProcessors());
+    // most recently used first, so that a few native threads stay busy and the rest time out
+    private static final ArrayDeque<Worker> idle = new ArrayDeque<Worker>();
+
+    private NativeThreadPool()
+    {
+    }
+
+    private static int getIntProperty(String key, int defaultValue)
+    {
+        String value = Props.props.getProperty(key);
+        if (value != null)
+        {
+            try
+            {
+                return Math.max(0, Integer.parseInt(value.trim()));
+            }
+            catch (NumberFormatException _)
+            {
+            }
+        }
+        return defaultValue;
+    }
+
+    static void start(Thread t)
+    {
+        Worker w;
+        synchronized (idle)
+        {
+            w = idle.pollFirst();
+        }
+        if (w == null)
+        {
+            w = new Worker();
+            t.setCarrier(w.thread);
+            w.task = t;
+            w.thread.Start();
+        }
+        else
+        {
+            t.setCarrier(w.thread);
+            w.assign(t);
+        }
+    }
+
+    // NOTE the worker doesn't use Java's Object.wait(), because that would attach a Thread object to the native thread
+    private static final class Worker
+    {
+        final cli.System.Threading.Thread thread;
+        private Thread task;
+
+        Worker()
+        {
+            thread = new cli.System.Threading.Thread(new cli.System.Threading.ThreadStart(new cli.System.Threading.ThreadStart.Method() {
+                @cli.IKVM.Attributes.HideFromJavaAttribute.Annotation
+                public void Invoke()
+                {
+                    run();
+                }
+            }));
+            thread.set_IsBackground(true);
+        }
+
+        synchronized void assign(Thread t)
+        {
+            task = t;
+            cli.System.Threading.Monitor.Pulse(this);
+        }
+
+        @cli.IKVM.Attributes.HideFromJavaAttribute.Annotation
+        private void run()
+        {
+            Thread t;
+            synchronized (this)
+            {
+                t = task;
+                task = null;
+            }
+            while (t != null)
+            {
+                t.runPooled(thread);
+                t = null;
+                thread.set_IsBackground(true);
+                thread.set_Priority(cli.System.Threading.ThreadPriority.wrap(cli.System.Threading.ThreadPriority.Normal));
+                t = next();
+            }
+        }
+
+        // returns the next Thread to run, or null if the native thread should exit
+        private Thread next()
+        {
+            synchronized (idle)
+            {
+                if (idle.size() >= maxIdle)
+                {
+                    return null;
+                }
+                idle.addFirst(this);
+            }
+            synchronized (this)
+            {
+                boolean timedOut = false;
+                while (task == null)
+                {
+                    try
+                    {
+                        if (false) throw new cli.System.Threading.ThreadInterruptedException();
+                        if (timedOut)
+                        {
+                            // start() has taken us off the idle list and is about to assign a Thread
+                            cli.System.Threading.Monitor.Wait(this);
+                        }
+                        else if (!cli.System.Threading.Monitor.Wait(this, keepAliveMillis))
+                        {
+                            synchronized (idle)
+                            {
+                                if (idle.remove(this))
+                                {
+                                    return null;
+                                }
+                            }
+                            timedOut = true;
+                        }
+                    }
+                    catch (cli.System.Threading.ThreadInterruptedException _)
+                    {
+                        // a stale interrupt for a Thread that ran on this native thread
+                    }
+                }
+                Thread t = task;
+                task = null;
+                return t;
+            }
+        }
+    }
+}
@@ -28,6 +28,7 @@ package java.lang;
 import java.io.ObjectStreamField;
 import java.io.UnsupportedEncodingException;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
@@ -35,7 +36,6 @@ import java.util.Formatter;
 import java.util.Locale;
 import java.util.Objects;
 import java.util.StringJoiner;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 import java.util.NoSuchElementException;
@@ -327,6 +327,10 @@ final class StringHelper
         if (charsetName == null)
             throw new NullPointerException("charsetName");
         checkBounds(bytes, offset, length);
+        String s = FastCoding.decode(FastCoding.lookup(charsetName), bytes, offset, length);
+        if (s != null) {
+            return s;
+        }
         char[] v = StringCoding.decode(charsetName, bytes, offset, length);
         return new String(v);
     }
@@ -365,6 +369,10 @@ final class StringHelper
         if (charset == null)
             throw new NullPointerException("charset");
         checkBounds(bytes, offset, length);
+        String s = FastCoding.decode(FastCoding.lookup(charset), bytes, offset, length);
+        if (s != null) {
+            return s;
+        }
         char[] v = StringCoding.decode(charset, bytes, offset, length);
         return new String(v);
     }
@@ -449,6 +457,10 @@ final class StringHelper
      */
     static String NewString(byte bytes[], int offset, int length) {
         checkBounds(bytes, offset, length);
+        String s = FastCoding.decode(FastCoding.lookup(Charset.defaultCharset()), bytes, offset, length);
+        if (s != null) {
+            return s;
+        }
         char[] v  = StringCoding.decode(bytes, offset, length);
         return new String(v);
     }
@@ -813,6 +825,10 @@ final class StringHelper
     static byte[] getBytes(String _this, String charsetName)
             throws UnsupportedEncodingException {
         if (charsetName == null) throw new NullPointerException();
+        byte[] b = FastCoding.encode(FastCoding.lookup(charsetName), _this);
+        if (b != null) {
+            return b;
+        }
         char[] value = _this.toCharArray();
         return StringCoding.encode(charsetName, value, 0, value.length);
     }
@@ -837,6 +853,10 @@ final class StringHelper
      */
     static byte[] getBytes(String _this, Charset charset) {
         if (charset == null) throw new NullPointerException();
+        byte[] b = FastCoding.encode(FastCoding.lookup(charset), _this);
+        if (b != null) {
+            return b;
+        }
         char[] value = _this.toCharArray();
         return StringCoding.encode(charset, value, 0, value.length);
     }
@@ -855,10 +875,81 @@ final class StringHelper
      * @since      JDK1.1
      */
     static byte[] getBytes(String _this) {
+        byte[] b = FastCoding.encode(FastCoding.lookup(Charset.defaultCharset()), _this);
+        if (b != null) {
+            return b;
+        }
         char[] value = _this.toCharArray();
         return StringCoding.encode(value, 0, value.length);
     }
 
+    // [IKVM] UTF-8, ISO-8859-1 and US-ASCII are encoded directly from the System.String
+    // and decoded directly into a new one by System.Text.Encoding, instead of going through
+    // a char[] and a CharsetEncoder/Decoder. The encodings are set up to replace malformed
+    // and unmappable input the way the JDK's coders do, except for malformed UTF-8, where
+    // the replacement can differ in the number of U+FFFD characters, so those strings are
+    // decoded again by StringCoding.
+    private static final class FastCoding {
+        private static final cli.System.Text.Encoding UTF8 = getEncoding(65001);
+        private static final cli.System.Text.Encoding LATIN1 = getEncoding(28591);
+        private static final cli.System.Text.Encoding ASCII = getEncoding(20127);
+
+        private static cli.System.Text.Encoding getEncoding(int codePage) {
+            try {
+                if (false) throw new cli.System.ArgumentException();
+                if (false) throw new cli.System.NotSupportedException();
+                return cli.System.Text.Encoding.GetEncoding(codePage,
+                    new cli.System.Text.EncoderReplacementFallback("?"),
+                    new cli.System.Text.DecoderReplacementFallback("\uFFFD"));
+            } catch (cli.System.ArgumentException _) {
+                return null;
+            } catch (cli.System.NotSupportedException _) {
+                return null;
+            }
+        }
+
+        static cli.System.Text.Encoding lookup(Charset cs) {
+            // the standard charsets are singletons
+            if (cs == StandardCharsets.UTF_8) {
+                return UTF8;
+            } else if (cs == StandardCharsets.ISO_8859_1) {
+                return LATIN1;
+            } else if (cs == StandardCharsets.US_ASCII) {
+                return ASCII;
+            }
+            return null;
+        }
+
+        static cli.System.Text.Encoding lookup(String csn) {
+            if (csn.equalsIgnoreCase("UTF-8") || csn.equalsIgnoreCase("UTF8")) {
+                return UTF8;
+            } else if (csn.equalsIgnoreCase("ISO-8859-1") || csn.equalsIgnoreCase("ISO8859_1")) {
+                return LATIN1;
+            } else if (csn.equalsIgnoreCase("US-ASCII") || csn.equalsIgnoreCase("ASCII")) {
+                return ASCII;
+            }
+            return null;
+        }
+
+        static String decode(cli.System.Text.Encoding enc, byte[] bytes, int offset, int length) {
+            if (enc == null) {
+                return null;
+            }
+            String s = enc.GetString(bytes, offset, length);
+            if (enc == UTF8 && ((cli.System.String)(Object)s).IndexOf('\uFFFD') >= 0) {
+                return null;
+            }
+            return s;
+        }
+
+        static byte[] encode(cli.System.Text.Encoding enc, String s) {
+            if (enc == null) {
+                return null;
+            }
+            return enc.GetBytes(s);
+        }
+    }
+
     /**
      * Compares this string to the specified {@code StringBuffer}.  The result
      * is {@code true} if and only if this {@code String} represents the same
@@ -1202,16 +1293,64 @@ final class StringHelper
      * @return  a hash code value for this object.
      */
     static int hashCode(cli.System.String _this) {
+        int len = _this.get_Length();
+        if (len < HASH_CACHE_MIN_LENGTH || len > HASH_CACHE_MAX_LENGTH) {
+            return computeHashCode(_this, len);
+        }
+        HashCacheEntry[] cache = hashCache;
+        int id = cli.System.Runtime.CompilerServices.RuntimeHelpers.GetHashCode(_this);
+        int slot = id & (cache.length - 1);
+        HashCacheEntry e = cache[slot];
+        if (e != null && e.str.get_Target() == _this) {
+            return e.hash;
+        }
+        int h = computeHashCode(_this, len);
+        if (hashCacheSeen[slot] == id) {
+            cache[slot] = new HashCacheEntry(_this, h);
+        } else {
+            hashCacheSeen[slot] = id;
+        }
+        return h;
+    }
+
+    private static int computeHashCode(cli.System.String _this, int len) {
         int h = 0;
-        // NOTE having the get_Length in the for condition is actually faster than hoisting it,
-        // the CLR JIT recognizes this pattern and optimizes the array bounds check in get_Chars.
-        for (int i = 0; i < _this.get_Length(); i++)
+        int i = 0;
+        // four characters per iteration, to shorten the chain of dependent multiplications
+        // (31^2 = 961, 31^3 = 29791, 31^4 = 923521)
+        for (; i + 3 < len; i += 4)
+        {
+            h = h * 923521 + _this.get_Chars(i) * 29791 + _this.get_Chars(i + 1) * 961 + _this.get_Chars(i + 2) * 31 + _this.get_Chars(i + 3);
+        }
+        for (; i < len; i++)
         {
             h = h * 31 + _this.get_Chars(i);
         }
         return h;
     }
 
+    // [IKVM] System.String has no field to cache the hash code in, so the hash codes of long
+    // strings are cached by identity in a small direct mapped table. The strings are only weakly
+    // referenced, so the table doesn't keep string data (request bodies, tokens, ...) alive; it
+    // holds at most 1024 entries of a weak reference and a hash code each. A weak reference is
+    // finalizable and holds a GC handle, which costs more than hashing a string once, so an entry
+    // is only created the second time a string misses: hashCacheSeen remembers the identity hash
+    // of the last string that missed in each slot.
+    private static final int HASH_CACHE_MIN_LENGTH = 128;
+    private static final int HASH_CACHE_MAX_LENGTH = 8192;
+    private static final HashCacheEntry[] hashCache = new HashCacheEntry[1024];
+    private static final int[] hashCacheSeen = new int[1024];
+
+    private static final class HashCacheEntry {
+        final cli.System.WeakReference str;
+        final int hash;
+
+        HashCacheEntry(Object str, int hash) {
+            this.str = new cli.System.WeakReference(str);
+            this.hash = hash;
+        }
+    }
+
     /**
      * Returns the index within this string of the first occurrence of
      * the specified character. If a character with value
@@ -1289,16 +1428,11 @@ final class StringHelper
             return -1;
         }
 
-        int i = fromIndex;
         if (ch < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
             // handle most cases here (ch is a BMP code point or a
             // negative value (invalid code point))
-            for (; i < max ; i++) {
-                if (_this.get_Chars(i) == ch) {
-                    return i;
-                }
-            }
-            return -1;
+            // [IKVM] String.IndexOf(char) is a native or vectorized loop
+            return ch < 0 ? -1 : _this.IndexOf((char)ch, fromIndex);
         } else {
             return indexOfSupplementary(_this, ch, fromIndex);
         }
@@ -1312,8 +1446,8 @@ final class StringHelper
             final char hi = Character.highSurrogate(ch);
             final char lo = Character.lowSurrogate(ch);
             final int max = _this.get_Length() - 1;
-            for (int i = fromIndex; i < max; i++) {
-                if (_this.get_Chars(i) == hi && _this.get_Chars(i+1) == lo) {
+            for (int i = _this.IndexOf(hi, fromIndex); i >= 0 && i < max; i = _this.IndexOf(hi, i + 1)) {
+                if (_this.get_Chars(i+1) == lo) {
                     return i;
                 }
             }
@@ -1387,12 +1521,7 @@ final class StringHelper
             // handle most cases here (ch is a BMP code point or a
             // negative value (invalid code point))
             int i = Math.min(fromIndex, _this.get_Length() - 1);
-            for (; i >= 0; i--) {
-                if (_this.get_Chars(i) == ch) {
-                    return i;
-                }
-            }
-            return -1;
+            return i < 0 || ch < 0 ? -1 : _this.LastIndexOf((char)ch, i);
         } else {
             return lastIndexOfSupplementary(_this, ch, fromIndex);
         }
@@ -1406,8 +1535,8 @@ final class StringHelper
             char hi = Character.highSurrogate(ch);
             char lo = Character.lowSurrogate(ch);
             int i = Math.min(fromIndex, _this.get_Length() - 2);
-            for (; i >= 0; i--) {
-                if (_this.get_Chars(i) == hi && _this.get_Chars(i+1) == lo) {
+            for (i = i < 0 ? -1 : _this.LastIndexOf(hi, i); i >= 0; i = i == 0 ? -1 : _this.LastIndexOf(hi, i - 1)) {
+                if (_this.get_Chars(i+1) == lo) {
                     return i;
                 }
             }
@@ -1461,19 +1590,12 @@ final class StringHelper
         {
             return -1;
         }
-        char firstChar = str.charAt(0);
         // Java allows fromIndex to both below zero or above the length of the string, .NET doesn't
         int index = Math.max(0, Math.min(slen, fromIndex));
-        int end = slen - olen;
-        while (index >= 0 && index <= end)
-        {
-            if (cli.System.String.CompareOrdinal(_this, index, str, 0, olen) == 0)
-            {
-                return index;
-            }
-            index = _this.indexOf(firstChar, index + 1);
-        }
-        return -1;
+        // an ordinal search compares UTF-16 code units, so it matches the Java semantics
+        // (including for supplementary characters and unpaired surrogates)
+        cli.System.String cliStr = (cli.System.String)(Object)_this;
+        return cliStr.IndexOf(str, index, cli.System.StringComparison.wrap(cli.System.StringComparison.Ordinal));
     }
 
     /**
@@ -1502,22 +1624,26 @@ final class StringHelper
         }
 
         char first = target.charAt(targetOffset);
+        char last = target.charAt(targetCount - 1);
         int max = sourceOffset + (sourceCount - targetCount);
 
         for (int i = sourceOffset + fromIndex; i <= max; i++) {
             /* Look for first character. */
             if (source[i] != first) {
-                while (++i <= max && source[i] != first);
+                i = indexOfChar(source, first, i + 1, max + 1);
+                if (i < 0) {
+                    return -1;
+                }
             }
 
-            /* Found first character, now look at the rest of v2 */
-            if (i <= max) {
+            /* Found first character, check the last one before looking at the rest of v2 */
+            int end = i + targetCount - 1;
+            if (source[end] == last) {
                 int j = i + 1;
-                int end = j + targetCount - 1;
                 for (int k = targetOffset + 1; j < end && source[j]
                         == target.charAt(k); j++, k++);
 
-                if (j == end) {
+                if (j >= end) {
                     /* Found whole string. */
                     return i - sourceOffset;
                 }
@@ -1553,22 +1679,26 @@ final class StringHelper
         }
 
         char first = target[targetOffset];
+        char last = target[targetOffset + targetCount - 1];
         int max = sourceOffset + (sourceCount - targetCount);
 
         for (int i = sourceOffset + fromIndex; i <= max; i++) {
             /* Look for first character. */
             if (source[i] != first) {
-                while (++i <= max && source[i] != first);
+                i = indexOfChar(source, first, i + 1, max + 1);
+                if (i < 0) {
+                    return -1;
+                }
             }
 
-            /* Found first character, now look at the rest of v2 */
-            if (i <= max) {
+            /* Found first character, check the last one before looking at the rest of v2 */
+            int end = i + targetCount - 1;
+            if (source[end] == last) {
                 int j = i + 1;
-                int end = j + targetCount - 1;
                 for (int k = targetOffset + 1; j < end && source[j]
                         == target[k]; j++, k++);
 
-                if (j == end) {
+                if (j >= end) {
                     /* Found whole string. */
                     return i - sourceOffset;
                 }
@@ -1577,6 +1707,21 @@ final class StringHelper
         return -1;
     }
 
+    // [IKVM] returns the index of the first c in source[from, to), or -1. For longer ranges this
+    // uses Array.IndexOf, which is a native (.NET Framework) or vectorized (.NET Core) loop for
+    // primitive arrays, but it needs a boxed char, so short ranges are searched here.
+    private static int indexOfChar(char[] source, char c, int from, int to) {
+        if (to - from < 32) {
+            for (int i = from; i < to; i++) {
+                if (source[i] == c) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        return cli.System.Array.IndexOf((cli.System.Array)(Object)source, ikvm.lang.CIL.box_char(c), from, to - from);
+    }
+
     /**
      * Returns the index within this string of the last occurrence of the
      * specified substring.  The last occurrence of the empty string ""
@@ -1906,8 +2051,35 @@ final class StringHelper
      * @since 1.5
      */
     static String replace(String _this, CharSequence target, CharSequence replacement) {
-        return Pattern.compile(target.toString(), Pattern.LITERAL).matcher(
-            _this).replaceAll(Matcher.quoteReplacement(replacement.toString()));
+        String tgtStr = target.toString();
+        String replStr = replacement.toString();
+        cli.System.String cliStr = (cli.System.String)(Object)_this;
+        if (tgtStr.length() != 0) {
+            // [IKVM] String.Replace(string, string) does an ordinal search for non-overlapping
+            // occurrences from left to right (like Java) and returns the string itself when
+            // there is no match
+            return cliStr.Replace(tgtStr, replStr);
+        }
+        // the empty string matches before every character and at the end
+        // (.NET doesn't allow an empty string to be replaced)
+        int len = _this.length();
+        int replLen = replStr.length();
+        long newLen = len + (len + 1L) * replLen;
+        if (newLen > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError();
+        }
+        if (replLen == 0) {
+            return _this;
+        }
+        char[] buf = new char[(int)newLen];
+        int pos = 0;
+        for (int i = 0; i < len; i++) {
+            replStr.getChars(0, replLen, buf, pos);
+            pos += replLen;
+            buf[pos++] = _this.charAt(i);
+        }
+        replStr.getChars(0, replLen, buf, pos);
+        return new String(buf, true);
     }
 
     /**
@@ -2001,9 +2173,11 @@ final class StringHelper
          (1)one-char String and this character is not one of the
             RegEx's meta characters ".$|()[{^?*+\\", or
          (2)two-char String and the first char is the backslash and
-            the second is not the ascii digit or ascii letter.
+            the second is not the ascii digit or ascii letter, or
+         (3)longer String without meta characters, which is a literal.
          */
         char ch = 0;
+        String literal = null;
         if (((regex.length() == 1 &&
              ".$|()[{^?*+\\".indexOf(ch = regex.charAt(0)) == -1) ||
              (regex.length() == 2 &&
@@ -2012,16 +2186,18 @@ final class StringHelper
               ((ch-'a')|('z'-ch)) < 0 &&
               ((ch-'A')|('Z'-ch)) < 0)) &&
             (ch < Character.MIN_HIGH_SURROGATE ||
-             ch > Character.MAX_LOW_SURROGATE))
+             ch > Character.MAX_LOW_SURROGATE) ||
+            (regex.length() > 1 && isLiteralRegex(literal = regex)))
         {
             int off = 0;
             int next = 0;
+            int delimLength = literal == null ? 1 : literal.length();
             boolean limited = limit > 0;
             ArrayList<String> list = new ArrayList<>();
-            while ((next = _this.indexOf(ch, off)) != -1) {
+            while ((next = literal == null ? _this.indexOf(ch, off) : _this.indexOf(literal, off)) != -1) {
                 if (!limited || list.size() < limit - 1) {
                     list.add(_this.substring(off, next));
-                    off = next + 1;
+                    off = next + delimLength;
                 } else {    // last one
                     //assert (list.size() == limit - 1);
                     list.add(_this.substring(off, _this.length()));
@@ -2047,7 +2223,103 @@ final class StringHelper
             String[] result = new String[resultSize];
             return list.subList(0, resultSize).toArray(result);
         }
-        return Pattern.compile(regex).split(_this, limit);
+        return PatternCache.compile(regex, 0).split(_this, limit);
+    }
+
+    private static boolean isLiteralRegex(String regex) {
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (".$|()[{^?*+\\".indexOf(c) != -1 || Character.isSurrogate(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // [IKVM] the regular expressions passed to the String methods are usually constants, so
+    // the compiled patterns are cached. The cache is a ConcurrentHashMap bounded by a
+    // second chance (clock) approximation of LRU: a lookup marks the entry as used, when
+    // the map is full the entries that weren't used since the previous sweep are evicted.
+    private static final class PatternCache {
+        private static final int MAX_ENTRIES = 256;
+        private static final java.util.concurrent.ConcurrentHashMap<Object, Entry> map =
+            new java.util.concurrent.ConcurrentHashMap<>();
+
+        private static final class Entry {
+            final Pattern pattern;
+            volatile boolean used;
+
+            Entry(Pattern pattern) {
+                this.pattern = pattern;
+            }
+        }
+
+        private static final class Key {
+            final String regex;
+            final int flags;
+
+            Key(String regex, int flags) {
+                this.regex = regex;
+                this.flags = flags;
+            }
+
+            public boolean equals(Object obj) {
+                return obj instanceof Key && ((Key)obj).regex.equals(regex) && ((Key)obj).flags == flags;
+            }
+
+            public int hashCode() {
+                return regex.hashCode() * 31 + flags;
+            }
+        }
+
+        static Pattern compile(String regex, int flags) {
+            // the common case (no flags) is keyed by the regex itself
+            Object key = flags == 0 ? regex : new Key(regex, flags);
+            Entry e = map.get(key);
+            if (e != null) {
+                if (!e.used) {
+                    e.used = true;
+                }
+                return e.pattern;
+            }
+            Pattern p = Pattern.compile(regex, flags);
+            if (map.size() >= MAX_ENTRIES) {
+                evict();
+            }
+            map.put(key, new Entry(p));
+            return p;
+        }
+
+        private static synchronized void evict() {
+            if (map.size() < MAX_ENTRIES) {
+                // another thread already made room
+                return;
+            }
+            for (java.util.Iterator<Entry> it = map.values().iterator(); it.hasNext(); ) {
+                Entry e = it.next();
+                if (e.used) {
+                    e.used = false;
+                } else {
+                    it.remove();
+                }
+            }
+            if (map.size() >= MAX_ENTRIES) {
+                // everything was used, start over
+                map.clear();
+            }
+        }
+    }
+
+    static boolean matches(String _this, String regex) {
+        return PatternCache.compile(regex, 0).matcher(_this).matches();
+    }
+
+    static String replaceAll(String _this, String regex, String replacement) {
+        return PatternCache.compile(regex, 0).matcher(_this).replaceAll(replacement);
+    }
+
+    static String replaceFirst(String _this, String regex, String replacement) {
+        return PatternCache.compile(regex, 0).matcher(_this).replaceFirst(replacement);
     }
 
     /**
@@ -47,8 +47,18 @@ final class StdIO
 {
     private StdIO() { }
     static InputStream in = new BufferedInputStream(new FileInputStream(FileDescriptor.in));
-    static PrintStream out = System.newPrintStream(new FileOutputStream(FileDescriptor.out), Props.props.getProperty("sun.stdout.encoding"));
-    static PrintStream err = System.newPrintStream(new FileOutputStream(FileDescriptor.err), Props.props.getProperty("sun.stderr.encoding"));
+    static PrintStream out = newPrintStream(FileDescriptor.out, "stdout");
+    static PrintStream err = newPrintStream(FileDescriptor.err, "stderr");
+
+    private static PrintStream newPrintStream(FileDescriptor fd, String name)
+    {
+        String enc = Props.props.getProperty("sun." + name + ".encoding");
+        if (AsyncConsoleOutputStream.isEnabled(name))
+        {
+            return AsyncConsoleOutputStream.newPrintStream(new FileOutputStream(fd), name, enc);
+        }
+        return System.newPrintStream(new FileOutputStream(fd), enc);
+    }
 }
 
 final class Props
@@ -171,6 +171,8 @@ class Thread implements Runnable {
     private boolean timedWait;
     volatile Object parkLock;   // used by get/setParkLock in map.xml
     int parkState;              // used by cmpxchgParkState in map.xml
+    boolean lightweight;        // always runs on a native thread from NativeThreadPool (see ThreadHelper)
+    private boolean pooled;     // runs on a native thread from NativeThreadPool
     /* --- end IKVM specific state --- */
 
     private volatile char  name[];
@@ -905,6 +907,16 @@ class Thread implements Runnable {
     }
 
     private void start0() {
+        String apartment = Props.props.getProperty("ikvm.apartmentstate", "").toLowerCase();
+        if (lightweight || (NativeThreadPool.enabled && stackSize <= 0 && apartment.isEmpty())) {
+            pooled = true;
+            threadStatus = 0x0005; // JVMTI_THREAD_STATE_ALIVE + JVMTI_THREAD_STATE_RUNNABLE
+            if (!daemon) {
+                cli.System.Threading.Interlocked.Increment(nonDaemonCount);
+            }
+            NativeThreadPool.start(this);
+            return;
+        }
         cli.System.Threading.ThreadStart threadStart = new cli.System.Threading.ThreadStart(new cli.System.Threading.ThreadStart.Method() {
             @cli.IKVM.Attributes.HideFromJavaAttribute.Annotation
             public void Invoke() {
@@ -921,7 +933,6 @@ class Thread implements Runnable {
         nativeThread.set_Name(getName());
         nativeThread.set_IsBackground(daemon);
         nativeThread.set_Priority(cli.System.Threading.ThreadPriority.wrap(mapJavaPriorityToClr(priority)));
-        String apartment = Props.props.getProperty("ikvm.apartmentstate", "").toLowerCase();
         if ("mta".equals(apartment)) {
             nativeThread.SetApartmentState(cli.System.Threading.ApartmentState.wrap(cli.System.Threading.ApartmentState.MTA));
         }
@@ -935,6 +946,38 @@ class Thread implements Runnable {
         }
     }
 
+    // [IKVM] called by NativeThreadPool on the pooled native thread it assigned to this thread
+    @cli.IKVM.Attributes.HideFromJavaAttribute.Annotation
+    void runPooled(cli.System.Threading.Thread carrier) {
+        carrier.set_IsBackground(daemon);
+        carrier.set_Priority(cli.System.Threading.ThreadPriority.wrap(mapJavaPriorityToClr(priority)));
+        setNativeName(getName());
+        runMounted();
+    }
+
+    // [IKVM] sets the native thread of a pooled thread, which the thread doesn't own
+    void setCarrier(cli.System.Threading.Thread carrier) {
+        synchronized (lock) {
+            nativeThread = carrier;
+        }
+    }
+
+    @cli.IKVM.Attributes.HideFromJavaAttribute.Annotation
+    private void runMounted() {
+        // the carrier may have its own Thread object attached (if the code it ran before called
+        // currentThread()), that has to survive our die()
+        Thread carrier = current;
+        Cleanup carrierCleanup = cleanup;
+        cleanup = null;
+        try {
+            threadProc();
+        }
+        finally {
+            current = carrier;
+            cleanup = carrierCleanup;
+        }
+    }
+
     /**
      * If this thread was constructed using a separate
      * <code>Runnable</code> run object, then that
@@ -2424,7 +2467,8 @@ class Thread implements Runnable {
             if (this == current) {
                 sun.misc.Unsafe.getUnsafe().throwException(x);
             }
-            else if (x instanceof ThreadDeath) {
+            else if (x instanceof ThreadDeath && !pooled) {
+                // (the native thread of a pooled thread is reused, so we don't abort it)
                 cli.System.Threading.Thread nativeThread = this.nativeThread;
                 if (nativeThread == null) {
                     return;
@@ -2530,6 +2574,8 @@ class Thread implements Runnable {
             }
             catch (Throwable _) {
             }
+            // make sure the stack trace is visible, even if the process is about to die
+            AsyncConsoleOutputStream.flushAll();
         }
     }
 
@@ -0,0 +1,44 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package java.lang;
+
+// [IKVM] gives ikvm.lang.LightweightThreads access to the Thread internals
+@ikvm.lang.Internal
+public final class ThreadHelper
+{
+    private ThreadHelper()
+    {
+    }
+
+    public static Thread newLightweightThread(Runnable task)
+    {
+        Thread t = new Thread(task);
+        t.lightweight = true;
+        t.setDaemon(true);
+        return t;
+    }
+
+    public static boolean isLightweight(Thread t)
+    {
+        return t.lightweight;
+    }
+}
@@ -26,6 +26,7 @@
 package java.nio;
 
 import java.security.AccessController;
+import java.util.concurrent.atomic.AtomicLong;
 import sun.misc.Unsafe;
 import sun.misc.VM;
 
@@ -650,55 +651,112 @@ class Bits {                            // package-private
     // direct buffer memory.  This value may be changed during VM
     // initialization if it is launched with "-XX:MaxDirectMemorySize=<size>".
     private static volatile long maxMemory = VM.maxDirectMemory();
-    private static volatile long reservedMemory;
-    private static volatile long totalCapacity;
-    private static volatile long count;
-    private static boolean memoryLimitSet = false;
+    private static final AtomicLong reservedMemory = new AtomicLong();
+    private static final AtomicLong totalCapacity = new AtomicLong();
+    private static final AtomicLong count = new AtomicLong();
+    private static volatile boolean memoryLimitSet = false;
+
+    // reservation statistics, exposed through the direct BufferPoolMXBean
+    private static final AtomicLong reserveWaitCount = new AtomicLong();
+    private static final AtomicLong reserveWaitTime = new AtomicLong();
+    private static final AtomicLong reserveFailureCount = new AtomicLong();
+
+    // max. number of sleeps during try-reserving with exponentially
+    // increasing delay before throwing OutOfMemoryError:
+    // 1, 2, 4, 8, 16, 32, 64, 128, 256 (total 511 ms ~ 0.5 s)
+    // which means that OOME will be thrown after 0.5 s of trying
+    private static final int MAX_SLEEPS = 9;
 
     // These methods should be called whenever direct memory is allocated or
     // freed.  They allow the user to control the amount of direct memory
     // which a process may access.  All sizes are specified in bytes.
     static void reserveMemory(long size, int cap) {
-        synchronized (Bits.class) {
-            if (!memoryLimitSet && VM.isBooted()) {
-                maxMemory = VM.maxDirectMemory();
-                memoryLimitSet = true;
-            }
-            // -XX:MaxDirectMemorySize limits the total capacity rather than the
-            // actual memory usage, which will differ when buffers are page
-            // aligned.
-            if (cap <= maxMemory - totalCapacity) {
-                reservedMemory += size;
-                totalCapacity += cap;
-                count++;
-                return;
-            }
+
+        if (!memoryLimitSet && VM.isBooted()) {
+            maxMemory = VM.maxDirectMemory();
+            memoryLimitSet = true;
         }
 
-        System.gc();
-        try {
-            Thread.sleep(100);
-        } catch (InterruptedException x) {
-            // Restore interrupt status
-            Thread.currentThread().interrupt();
+        // optimist!
+        if (tryReserveMemory(size, cap)) {
+            return;
         }
-        synchronized (Bits.class) {
-            if (totalCapacity + cap > maxMemory)
+
+        long start = System.nanoTime();
+        reserveWaitCount.incrementAndGet();
+        try {
+            // Cleaners of unreachable direct buffers run from the finalizer
+            // thread, so first give the finalizers that are already pending a
+            // chance to release their memory before we force a collection
+            cli.System.GC.WaitForPendingFinalizers();
+            if (tryReserveMemory(size, cap)) {
+                return;
+            }
+
+            // trigger VM's Reference processing
+            System.gc();
+            cli.System.GC.WaitForPendingFinalizers();
+
+            // a retry loop with exponential back-off delays
+            // (this gives VM some time to do it's job)
+            boolean interrupted = false;
+            try {
+                long sleepTime = 1;
+                int sleeps = 0;
+                while (true) {
+                    if (tryReserveMemory(size, cap)) {
+                        return;
+                    }
+                    if (sleeps >= MAX_SLEEPS) {
+                        break;
+                    }
+                    try {
+                        Thread.sleep(sleepTime);
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                    cli.System.GC.WaitForPendingFinalizers();
+                    sleepTime <<= 1;
+                    sleeps++;
+                }
+
+                // no luck
+                reserveFailureCount.incrementAndGet();
                 throw new OutOfMemoryError("Direct buffer memory");
-            reservedMemory += size;
-            totalCapacity += cap;
-            count++;
-        }
 
+            } finally {
+                if (interrupted) {
+                    // don't swallow interrupts
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } finally {
+            reserveWaitTime.addAndGet(System.nanoTime() - start);
+        }
     }
 
-    static synchronized void unreserveMemory(long size, int cap) {
-        if (reservedMemory > 0) {
-            reservedMemory -= size;
-            totalCapacity -= cap;
-            count--;
-            assert (reservedMemory > -1);
+    private static boolean tryReserveMemory(long size, int cap) {
+
+        // -XX:MaxDirectMemorySize limits the total capacity rather than the
+        // actual memory usage, which will differ when buffers are page
+        // aligned.
+        long totalCap;
+        while (cap <= maxMemory - (totalCap = totalCapacity.get())) {
+            if (totalCapacity.compareAndSet(totalCap, totalCap + cap)) {
+                reservedMemory.addAndGet(size);
+                count.incrementAndGet();
+                return true;
+            }
         }
+
+        return false;
+    }
+
+    static void unreserveMemory(long size, int cap) {
+        long cnt = count.decrementAndGet();
+        long reservedMem = reservedMemory.addAndGet(-size);
+        long totalCap = totalCapacity.addAndGet(-cap);
+        assert cnt >= 0 && reservedMem >= 0 && totalCap >= 0;
     }
 
     // -- Monitoring of direct buffer usage --
@@ -709,24 +767,7 @@ class Bits {                            // package-private
             new sun.misc.JavaNioAccess() {
                 @Override
                 public sun.misc.JavaNioAccess.BufferPool getDirectBufferPool() {
-                    return new sun.misc.JavaNioAccess.BufferPool() {
-                        @Override
-                        public String getName() {
-                            return "direct";
-                        }
-                        @Override
-                        public long getCount() {
-                            return Bits.count;
-                        }
-                        @Override
-                        public long getTotalCapacity() {
-                            return Bits.totalCapacity;
-                        }
-                        @Override
-                        public long getMemoryUsed() {
-                            return Bits.reservedMemory;
-                        }
-                    };
+                    return new DirectBufferPool();
                 }
                 @Override
                 public ByteBuffer newDirectByteBuffer(long addr, int cap, Object ob) {
@@ -739,6 +780,39 @@ class Bits {                            // package-private
         });
     }
 
+    private static final class DirectBufferPool
+        implements sun.misc.JavaNioAccess.BufferPool, sun.misc.BufferPoolReservations
+    {
+        @Override
+        public String getName() {
+            return "direct";
+        }
+        @Override
+        public long getCount() {
+            return Bits.count.get();
+        }
+        @Override
+        public long getTotalCapacity() {
+            return Bits.totalCapacity.get();
+        }
+        @Override
+        public long getMemoryUsed() {
+            return Bits.reservedMemory.get();
+        }
+        @Override
+        public long getReserveWaitCount() {
+            return Bits.reserveWaitCount.get();
+        }
+        @Override
+        public long getReserveWaitTime() {
+            return Bits.reserveWaitTime.get() / 1000000L;
+        }
+        @Override
+        public long getReserveFailureCount() {
+            return Bits.reserveFailureCount.get();
+        }
+    }
+
     // -- Bulk get/put acceleration --
 
     // These numbers represent the point at which we have empirically
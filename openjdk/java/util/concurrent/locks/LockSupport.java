@@ -163,20 +163,44 @@ public class LockSupport {
 
     private static void parkImpl(Thread currentThread, boolean deadline, long nanos)
     {
-        if (cmpxchgParkState(currentThread, PARK_STATE_RUNNING, PARK_STATE_PERMIT) == PARK_STATE_PERMIT)
+        if (consumePermit(currentThread))
         {
-            // we consumed a permit
             return;
         }
 
-        Object lock = getParkLock(currentThread);
-        if (lock == null)
+        // relative timeout in nanoseconds, 0 means no timeout
+        long timeout = nanos;
+        if (deadline)
         {
-            // we lazily allocate the lock object
-            lock = new Object();
-            setParkLock(currentThread, lock);
+            timeout -= System.currentTimeMillis() * 1000000;
+            if (timeout <= 0)
+            {
+                return;
+            }
+        }
+        long start = timeout != 0 ? System.nanoTime() : 0;
+
+        Parker parker = getParker(currentThread);
+        if (spin(currentThread, parker))
+        {
+            return;
+        }
+        if (timeout != 0)
+        {
+            timeout -= System.nanoTime() - start;
+            if (timeout <= 0)
+            {
+                return;
+            }
+            if (timeout < SPIN_FOR_TIMEOUT_THRESHOLD)
+            {
+                // Monitor.Wait() can't wait less than a millisecond (and on Windows it usually waits
+                // for the next timer tick), so we yield until the timeout expires instead
+                yieldUntil(currentThread, System.nanoTime() + timeout);
+                return;
+            }
         }
-        synchronized (lock)
+        synchronized (parker)
         {
             if (cmpxchgParkState(currentThread, PARK_STATE_PARKED, PARK_STATE_RUNNING) == PARK_STATE_PERMIT)
             {
@@ -185,25 +209,81 @@ public class LockSupport {
                 cmpxchgParkState(currentThread, PARK_STATE_RUNNING, PARK_STATE_PERMIT);
                 return;
             }
-            if (deadline)
+            try
             {
-                nanos -= System.currentTimeMillis() * 1000000;
+                // we round the timeout down, a park may return early and the caller parks again for the remainder
+                parker.wait(timeout / 1000000);
             }
-            if (nanos >= 0)
+            catch (InterruptedException _)
             {
-                try
-                {
-                    lock.wait(nanos / 1000000, (int)(nanos % 1000000));
-                }
-                catch (InterruptedException _)
-                {
-                    currentThread.interrupt();
-                }
+                currentThread.interrupt();
             }
             cmpxchgParkState(currentThread, PARK_STATE_RUNNING, PARK_STATE_PARKED);
         }
     }
 
+    // the number of SpinWait() calls before a thread blocks adapts to how often spinning was successful
+    private static final int MIN_SPINS = 4;
+    private static final int MAX_SPINS = 256;
+    private static final int SPIN_ITERATIONS = 16;
+    private static final boolean MULTI_PROCESSOR = Runtime.getRuntime().availableProcessors() > 1;
+    private static final long SPIN_FOR_TIMEOUT_THRESHOLD = 1000000L;
+
+    // the park lock of a thread, allocated once and reused for all its parks
+    private static final class Parker
+    {
+        // only accessed by the owning thread
+        int spins = MULTI_PROCESSOR ? 32 : 0;
+    }
+
+    private static Parker getParker(Thread t)
+    {
+        Parker parker = (Parker)getParkLock(t);
+        if (parker == null)
+        {
+            parker = new Parker();
+            setParkLock(t, parker);
+        }
+        return parker;
+    }
+
+    private static boolean consumePermit(Thread t)
+    {
+        return cmpxchgParkState(t, PARK_STATE_RUNNING, PARK_STATE_PERMIT) == PARK_STATE_PERMIT;
+    }
+
+    // returns true if park can return, because we got a permit or the thread was interrupted
+    private static boolean spin(Thread t, Parker parker)
+    {
+        int spins = parker.spins;
+        for (int i = 0; i < spins; i++)
+        {
+            cli.System.Threading.Thread.SpinWait(SPIN_ITERATIONS);
+            if (consumePermit(t))
+            {
+                parker.spins = Math.min(spins * 2, MAX_SPINS);
+                return true;
+            }
+            if (t.isInterrupted())
+            {
+                return true;
+            }
+        }
+        if (spins != 0)
+        {
+            parker.spins = Math.max(spins / 2, MIN_SPINS);
+        }
+        return false;
+    }
+
+    private static void yieldUntil(Thread t, long deadline)
+    {
+        while (!consumePermit(t) && !t.isInterrupted() && System.nanoTime() - deadline < 0)
+        {
+            Thread.yield();
+        }
+    }
+
     /**
      * Disables the current thread for thread scheduling purposes unless the
      * permit is available.
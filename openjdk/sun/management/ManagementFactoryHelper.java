@@ -205,11 +205,13 @@ public class ManagementFactoryHelper {
     private static List<BufferPoolMXBean> bufferPools = null;
     public static synchronized List<BufferPoolMXBean> getBufferPoolMXBeans() {
         if (bufferPools == null) {
-            bufferPools = new ArrayList<>(2);
+            bufferPools = new ArrayList<>(3);
             bufferPools.add(createBufferPoolMXBean(sun.misc.SharedSecrets.getJavaNioAccess()
                 .getDirectBufferPool()));
             bufferPools.add(createBufferPoolMXBean(sun.nio.ch.FileChannelImpl
                 .getMappedBufferPool()));
+            bufferPools.add(createBufferPoolMXBean(ikvm.nio.SlabAllocator
+                .getBufferPool()));
         }
         return bufferPools;
     }
@@ -222,40 +224,72 @@ public class ManagementFactoryHelper {
     private static BufferPoolMXBean
         createBufferPoolMXBean(final sun.misc.JavaNioAccess.BufferPool pool)
     {
-        return new BufferPoolMXBean() {
-            private volatile ObjectName objname;  // created lazily
-            @Override
-            public ObjectName getObjectName() {
-                ObjectName result = objname;
-                if (result == null) {
-                    synchronized (this) {
-                        result = objname;
-                        if (result == null) {
-                            result = Util.newObjectName(BUFFER_POOL_MXBEAN_NAME +
-                                ",name=" + pool.getName());
-                            objname = result;
-                        }
+        if (pool instanceof sun.misc.BufferPoolReservations) {
+            return new ReservingBufferPoolImpl(pool);
+        }
+        return new BufferPoolImpl(pool);
+    }
+
+    private static class BufferPoolImpl implements BufferPoolMXBean {
+        final sun.misc.JavaNioAccess.BufferPool pool;
+        private volatile ObjectName objname;  // created lazily
+
+        BufferPoolImpl(sun.misc.JavaNioAccess.BufferPool pool) {
+            this.pool = pool;
+        }
+        @Override
+        public ObjectName getObjectName() {
+            ObjectName result = objname;
+            if (result == null) {
+                synchronized (this) {
+                    result = objname;
+                    if (result == null) {
+                        result = Util.newObjectName(BUFFER_POOL_MXBEAN_NAME +
+                            ",name=" + pool.getName());
+                        objname = result;
                     }
                 }
-                return result;
-            }
-            @Override
-            public String getName() {
-                return pool.getName();
             }
-            @Override
-            public long getCount() {
-                return pool.getCount();
-            }
-            @Override
-            public long getTotalCapacity() {
-                return pool.getTotalCapacity();
-            }
-            @Override
-            public long getMemoryUsed() {
-                return pool.getMemoryUsed();
-            }
-        };
+            return result;
+        }
+        @Override
+        public String getName() {
+            return pool.getName();
+        }
+        @Override
+        public long getCount() {
+            return pool.getCount();
+        }
+        @Override
+        public long getTotalCapacity() {
+            return pool.getTotalCapacity();
+        }
+        @Override
+        public long getMemoryUsed() {
+            return pool.getMemoryUsed();
+        }
+    }
+
+    private static final class ReservingBufferPoolImpl extends BufferPoolImpl
+        implements ReservingBufferPoolMXBean {
+        private final sun.misc.BufferPoolReservations reservations;
+
+        ReservingBufferPoolImpl(sun.misc.JavaNioAccess.BufferPool pool) {
+            super(pool);
+            this.reservations = (sun.misc.BufferPoolReservations)pool;
+        }
+        @Override
+        public long getReserveWaitCount() {
+            return reservations.getReserveWaitCount();
+        }
+        @Override
+        public long getReserveWaitTime() {
+            return reservations.getReserveWaitTime();
+        }
+        @Override
+        public long getReserveFailureCount() {
+            return reservations.getReserveFailureCount();
+        }
     }
 
     /**
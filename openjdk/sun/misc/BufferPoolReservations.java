@@ -0,0 +1,46 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package sun.misc;
+
+/**
+ * Implemented by a {@link JavaNioAccess.BufferPool} that enforces a capacity
+ * limit, to report how often reservations had to wait for memory to be freed.
+ */
+public interface BufferPoolReservations
+{
+    /**
+     * Returns the number of reservations that could not be satisfied
+     * immediately and had to wait for memory to be released.
+     */
+    long getReserveWaitCount();
+
+    /**
+     * Returns the total time, in milliseconds, spent waiting for memory
+     * by reservations that could not be satisfied immediately.
+     */
+    long getReserveWaitTime();
+
+    /**
+     * Returns the number of reservations that failed with an
+     * {@code OutOfMemoryError}.
+     */
+    long getReserveFailureCount();
+}
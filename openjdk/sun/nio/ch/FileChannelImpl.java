@@ -44,7 +44,6 @@ import java.nio.channels.OverlappingFileLockException;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.security.AccessController;
-import java.util.ArrayList;
 import java.util.List;
 
 import sun.misc.Cleaner;
@@ -61,6 +60,9 @@ public class FileChannelImpl
     // Used to make native read and write calls
     private final FileDispatcher nd;
 
+    // Coalesces concurrent force calls, null unless opened with GROUP_COMMIT
+    private final GroupCommit groupCommit;
+
     // File descriptor
     private final FileDescriptor fd;
 
@@ -83,7 +85,8 @@ public class FileChannelImpl
     private final Object positionLock = new Object();
 
     private FileChannelImpl(FileDescriptor fd, String path, boolean readable,
-                            boolean writable, boolean append, Object parent)
+                            boolean writable, boolean append, boolean direct,
+                            boolean groupCommit, Object parent)
     {
         this.fd = fd;
         this.readable = readable;
@@ -91,7 +94,8 @@ public class FileChannelImpl
         this.append = append;
         this.parent = parent;
         this.path = path;
-        this.nd = new FileDispatcherImpl(append);
+        this.nd = new FileDispatcherImpl(append, direct);
+        this.groupCommit = groupCommit ? new GroupCommit(nd, fd) : null;
     }
 
     // Used by FileInputStream.getChannel() and RandomAccessFile.getChannel()
@@ -99,7 +103,7 @@ public class FileChannelImpl
                                    boolean readable, boolean writable,
                                    Object parent)
     {
-        return new FileChannelImpl(fd, path, readable, writable, false, parent);
+        return new FileChannelImpl(fd, path, readable, writable, false, false, false, parent);
     }
 
     // Used by FileOutputStream.getChannel
@@ -107,7 +111,31 @@ public class FileChannelImpl
                                    boolean readable, boolean writable,
                                    boolean append, Object parent)
     {
-        return new FileChannelImpl(fd, path, readable, writable, append, parent);
+        return new FileChannelImpl(fd, path, readable, writable, append, false, false, parent);
+    }
+
+    // Used by NetFileSystemProvider for files opened with FileOpenOption.DIRECT
+    // or FileOpenOption.GROUP_COMMIT
+    public static FileChannel open(FileDescriptor fd, String path,
+                                   boolean readable, boolean writable,
+                                   boolean append, boolean direct,
+                                   boolean groupCommit, Object parent)
+        throws IOException
+    {
+        if (direct) {
+            try {
+                FileDispatcherImpl.enableDirectIO(fd);
+            } catch (IOException | RuntimeException x) {
+                try {
+                    fd.close();
+                } catch (IOException y) {
+                    x.addSuppressed(y);
+                }
+                throw x;
+            }
+        }
+        return new FileChannelImpl(fd, path, readable, writable, append, direct,
+                                   groupCommit, parent);
     }
 
     private void ensureOpen() throws IOException {
@@ -146,6 +174,10 @@ public class FileChannelImpl
             nd.close(fd);
         }
 
+        // size and timestamps may have changed through this channel
+        if (writable && path != null) {
+            sun.nio.fs.NetAttributeCache.invalidate(path);
+        }
     }
 
     public int read(ByteBuffer dst) throws IOException {
@@ -393,7 +425,10 @@ public class FileChannelImpl
             if (!isOpen())
                 return;
             do {
-                rv = nd.force(fd, metaData);
+                if (groupCommit != null)
+                    rv = groupCommit.force(metaData);
+                else
+                    rv = nd.force(fd, metaData);
             } while ((rv == IOStatus.INTERRUPTED) && isOpen());
         } finally {
             threads.remove(ti);
@@ -962,52 +997,37 @@ public class FileChannelImpl
     // -- File lock support --
 
     /**
-     * A simple file lock table that maintains a list of FileLocks obtained by a
+     * A simple file lock table that maintains the FileLocks obtained by a
      * FileChannel. Use to get 1.4/5.0 behaviour.
      */
     private static class SimpleFileLockTable extends FileLockTable {
-        // synchronize on list for access
-        private final List<FileLock> lockList = new ArrayList<FileLock>(2);
+        // synchronize on index for access
+        private final FileLockTable.LockIndex index = new FileLockTable.LockIndex();
 
         public SimpleFileLockTable() {
         }
 
-        private void checkList(long position, long size)
-            throws OverlappingFileLockException
-        {
-            assert Thread.holdsLock(lockList);
-            for (FileLock fl: lockList) {
-                if (fl.overlaps(position, size)) {
-                    throw new OverlappingFileLockException();
-                }
-            }
-        }
-
         public void add(FileLock fl) throws OverlappingFileLockException {
-            synchronized (lockList) {
-                checkList(fl.position(), fl.size());
-                lockList.add(fl);
+            synchronized (index) {
+                index.add(fl);
             }
         }
 
         public void remove(FileLock fl) {
-            synchronized (lockList) {
-                lockList.remove(fl);
+            synchronized (index) {
+                index.remove(fl);
             }
         }
 
         public List<FileLock> removeAll() {
-            synchronized(lockList) {
-                List<FileLock> result = new ArrayList<FileLock>(lockList);
-                lockList.clear();
-                return result;
+            synchronized(index) {
+                return index.removeAll();
             }
         }
 
         public void replace(FileLock fl1, FileLock fl2) {
-            synchronized (lockList) {
-                lockList.remove(fl1);
-                lockList.add(fl2);
+            synchronized (index) {
+                index.replace(fl1, fl2);
             }
         }
     }
@@ -34,6 +34,9 @@ import cli.System.Runtime.InteropServices.DllImportAttribute;
 import cli.System.Runtime.InteropServices.StructLayoutAttribute;
 import cli.System.Runtime.InteropServices.LayoutKind;
 import cli.System.Runtime.InteropServices.Marshal;
+import static ikvm.internal.Util.LINUX;
+import static ikvm.internal.Util.LINUX_MACHINE;
+import static ikvm.internal.Util.MACOSX;
 import static ikvm.internal.Util.WINDOWS;
 
 class FileDispatcherImpl extends FileDispatcher
@@ -44,8 +47,20 @@ class FileDispatcherImpl extends FileDispatcher
      */
     private final boolean append;
 
-    FileDispatcherImpl(boolean append) {
+    /**
+     * Indicates if the file was opened for direct I/O, in which case
+     * direct buffers are transferred in place (they must be suitably
+     * aligned) instead of being copied through a heap array.
+     */
+    private final boolean direct;
+
+    FileDispatcherImpl(boolean append, boolean direct) {
         this.append = append;
+        this.direct = direct;
+    }
+
+    FileDispatcherImpl(boolean append) {
+        this(append, false);
     }
 
     FileDispatcherImpl() {
@@ -126,6 +141,165 @@ class FileDispatcherImpl extends FileDispatcher
         return totalWritten;
     }
 
+    @Override
+    boolean transfersDirectBuffers() {
+        return direct;
+    }
+
+    @Override
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    int readDirect(FileDescriptor fd, long address, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        FileStream fs = (FileStream)fd.getStream();
+        try
+        {
+            if (false) throw new cli.System.IO.IOException();
+            if (false) throw new cli.System.ObjectDisposedException(null);
+            long pos = fs.get_Position();
+            int n;
+            if (WINDOWS)
+            {
+                int ERROR_HANDLE_EOF = 38;
+                OVERLAPPED o = new OVERLAPPED();
+                o.OffsetLow = (int)pos;
+                o.OffsetHigh = (int)(pos >> 32);
+                int[] transferred = new int[1];
+                if (ReadFile(fs.get_SafeFileHandle(), IntPtr.op_Explicit(address), length, transferred, o) == 0)
+                {
+                    int error = Marshal.GetLastWin32Error();
+                    if (error != ERROR_HANDLE_EOF)
+                    {
+                        throw new IOException("Read failed (Win32 error " + error + ")");
+                    }
+                    transferred[0] = 0;
+                }
+                n = transferred[0];
+            }
+            else
+            {
+                // libSystem has no pread64, its off_t is 64 bits
+                long result = (MACOSX
+                    ? pread(fs.get_SafeFileHandle(), IntPtr.op_Explicit(address), IntPtr.op_Explicit((long)length), pos)
+                    : pread64(fs.get_SafeFileHandle(), IntPtr.op_Explicit(address), IntPtr.op_Explicit((long)length), pos)).ToInt64();
+                if (result < 0)
+                {
+                    throw new IOException("Read failed (errno " + Marshal.GetLastWin32Error() + ")");
+                }
+                n = (int)result;
+            }
+            if (n == 0)
+            {
+                return -1;
+            }
+            // keep the FileStream's idea of the position in sync
+            fs.set_Position(pos + n);
+            return n;
+        }
+        catch (cli.System.IO.IOException x)
+        {
+            throw new IOException(x.getMessage());
+        }
+        catch (cli.System.ObjectDisposedException x)
+        {
+            throw new java.nio.channels.ClosedChannelException();
+        }
+    }
+
+    @Override
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    int writeDirect(FileDescriptor fd, long address, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        FileStream fs = (FileStream)fd.getStream();
+        try
+        {
+            if (false) throw new cli.System.IO.IOException();
+            if (false) throw new cli.System.ObjectDisposedException(null);
+            long pos = append ? fs.get_Length() : fs.get_Position();
+            int n;
+            if (WINDOWS)
+            {
+                OVERLAPPED o = new OVERLAPPED();
+                o.OffsetLow = (int)pos;
+                o.OffsetHigh = (int)(pos >> 32);
+                int[] transferred = new int[1];
+                if (WriteFile(fs.get_SafeFileHandle(), IntPtr.op_Explicit(address), length, transferred, o) == 0)
+                {
+                    throw new IOException("Write failed (Win32 error " + Marshal.GetLastWin32Error() + ")");
+                }
+                n = transferred[0];
+            }
+            else
+            {
+                long result = (MACOSX
+                    ? pwrite(fs.get_SafeFileHandle(), IntPtr.op_Explicit(address), IntPtr.op_Explicit((long)length), pos)
+                    : pwrite64(fs.get_SafeFileHandle(), IntPtr.op_Explicit(address), IntPtr.op_Explicit((long)length), pos)).ToInt64();
+                if (result < 0)
+                {
+                    throw new IOException("Write failed (errno " + Marshal.GetLastWin32Error() + ")");
+                }
+                n = (int)result;
+            }
+            // keep the FileStream's idea of the position in sync
+            fs.set_Position(pos + n);
+            return n;
+        }
+        catch (cli.System.IO.IOException x)
+        {
+            throw new IOException(x.getMessage());
+        }
+        catch (cli.System.ObjectDisposedException x)
+        {
+            throw new java.nio.channels.ClosedChannelException();
+        }
+    }
+
+    // O_DIRECT depends on the architecture, 0 where we don't know it
+    private static final int O_DIRECT = LINUX ? linuxODirect() : 0;
+
+    private static int linuxODirect() {
+        switch (LINUX_MACHINE) {
+            case 3:     // EM_386
+            case 62:    // EM_X86_64
+                return 040000;
+            case 40:    // EM_ARM
+            case 183:   // EM_AARCH64
+                return 0200000;
+            default:
+                return 0;
+        }
+    }
+
+    // Bypasses the page cache for a file opened through FileStream: O_DIRECT on Linux,
+    // F_NOCACHE on Mac OS X (on Windows the equivalent FILE_FLAG_NO_BUFFERING has to be
+    // passed when opening the file)
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    static void enableDirectIO(FileDescriptor fd) throws IOException {
+        if (WINDOWS) {
+            return;
+        }
+        int F_GETFL = 3;
+        int F_SETFL = 4;
+        int F_NOCACHE = 48;
+        FileStream fs = (FileStream)fd.getStream();
+        if (MACOSX) {
+            if (fcntl(fs.get_SafeFileHandle(), F_NOCACHE, 1) == -1) {
+                throw new IOException("Unable to enable direct I/O (errno " + Marshal.GetLastWin32Error() + ")");
+            }
+            return;
+        }
+        if (O_DIRECT == 0) {
+            throw new UnsupportedOperationException("Direct I/O is not supported on this platform");
+        }
+        int flags = fcntl(fs.get_SafeFileHandle(), F_GETFL, 0);
+        if (flags == -1 || fcntl(fs.get_SafeFileHandle(), F_SETFL, flags | O_DIRECT) == -1) {
+            throw new IOException("Unable to enable direct I/O (errno " + Marshal.GetLastWin32Error() + ")");
+        }
+    }
+
     int force(FileDescriptor fd, boolean metaData) throws IOException {
         fd.sync();
         return 0;
@@ -298,6 +472,27 @@ class FileDispatcherImpl extends FileDispatcher
         return new FileDescriptor();
     }
 
+    @DllImportAttribute.Annotation(value="kernel32", SetLastError=true)
+    private static native int ReadFile(SafeFileHandle hFile, IntPtr lpBuffer, int nNumberOfBytesToRead, int[] lpNumberOfBytesRead, OVERLAPPED lpOverlapped);
+
+    @DllImportAttribute.Annotation(value="kernel32", SetLastError=true)
+    private static native int WriteFile(SafeFileHandle hFile, IntPtr lpBuffer, int nNumberOfBytesToWrite, int[] lpNumberOfBytesWritten, OVERLAPPED lpOverlapped);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr pread64(SafeFileHandle fd, IntPtr buf, IntPtr count, long offset);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr pwrite64(SafeFileHandle fd, IntPtr buf, IntPtr count, long offset);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr pread(SafeFileHandle fd, IntPtr buf, IntPtr count, long offset);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr pwrite(SafeFileHandle fd, IntPtr buf, IntPtr count, long offset);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int fcntl(SafeFileHandle fd, int cmd, int arg);
+
     @DllImportAttribute.Annotation(value="kernel32", SetLastError=true)
     private static native int LockFileEx(SafeFileHandle hFile, int dwFlags, int dwReserved, int nNumberOfBytesToLockLow, int nNumberOfBytesToLockHigh, OVERLAPPED lpOverlapped);
 
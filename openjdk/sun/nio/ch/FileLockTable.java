@@ -0,0 +1,360 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * A table of FileLocks, indexed by byte range so that the overlap check
+ * and removal take O(log n) instead of scanning every lock held on the file.
+ */
+abstract class FileLockTable
+{
+    protected FileLockTable()
+    {
+    }
+
+    /**
+     * Creates and returns a file lock table for a channel that is connected to
+     * the a system-wide map of all file locks for the Java virtual machine.
+     */
+    public static FileLockTable newSharedFileLockTable(Channel channel,
+                                                       FileDescriptor fd)
+        throws IOException
+    {
+        return new SharedFileLockTable(channel, fd);
+    }
+
+    /**
+     * Adds a file lock to the table.
+     *
+     * @throws OverlappingFileLockException if the file lock overlaps
+     *         with an existing file lock in the table
+     */
+    public abstract void add(FileLock fl) throws OverlappingFileLockException;
+
+    /**
+     * Remove an existing file lock from the table.
+     */
+    public abstract void remove(FileLock fl);
+
+    /**
+     * Removes all file locks from the table.
+     *
+     * @return  The list of file locks removed
+     */
+    public abstract List<FileLock> removeAll();
+
+    /**
+     * Replaces an existing file lock in the table.
+     */
+    public abstract void replace(FileLock fl1, FileLock fl2);
+
+    /*
+     * The locks on a file, ordered by position. Because the set never contains
+     * two overlapping locks, the locks with a non-zero size are disjoint and a
+     * single neighbour on each side decides whether a new range overlaps.
+     * Zero-size locks don't overlap each other, so they are kept apart (several
+     * of them may share a position). Callers must synchronize on the index.
+     */
+    @SuppressWarnings("unchecked")
+    static class LockIndex
+    {
+        private final TreeMap<Long, FileLock> ranges = new TreeMap<Long, FileLock>();
+        private final TreeMap<Long, Object> points = new TreeMap<Long, Object>();
+        private int size;
+
+        int size()
+        {
+            return size;
+        }
+
+        boolean overlaps(long position, long size)
+        {
+            Map.Entry<Long, FileLock> below = ranges.lowerEntry(position);
+            if (below != null && below.getValue().overlaps(position, size))
+            {
+                return true;
+            }
+            if (size == 0)
+            {
+                return false;
+            }
+            Long key = ranges.ceilingKey(position);
+            if (key != null && key.longValue() - position < size)
+            {
+                return true;
+            }
+            key = points.higherKey(position);
+            return key != null && key.longValue() - position < size;
+        }
+
+        void add(FileLock fl) throws OverlappingFileLockException
+        {
+            if (overlaps(fl.position(), fl.size()))
+            {
+                throw new OverlappingFileLockException();
+            }
+            insert(fl);
+        }
+
+        private void insert(FileLock fl)
+        {
+            Long key = Long.valueOf(fl.position());
+            if (fl.size() != 0)
+            {
+                ranges.put(key, fl);
+            }
+            else
+            {
+                Object value = points.get(key);
+                if (value == null)
+                {
+                    points.put(key, fl);
+                }
+                else if (value instanceof FileLock)
+                {
+                    List<FileLock> list = new ArrayList<FileLock>(2);
+                    list.add((FileLock)value);
+                    list.add(fl);
+                    points.put(key, list);
+                }
+                else
+                {
+                    ((List<FileLock>)value).add(fl);
+                }
+            }
+            size++;
+        }
+
+        boolean remove(FileLock fl)
+        {
+            Long key = Long.valueOf(fl.position());
+            if (fl.size() != 0)
+            {
+                if (ranges.get(key) != fl)
+                {
+                    return false;
+                }
+                ranges.remove(key);
+            }
+            else
+            {
+                Object value = points.get(key);
+                if (value == fl)
+                {
+                    points.remove(key);
+                }
+                else if (value instanceof List && removeIdentical((List<FileLock>)value, fl))
+                {
+                    if (((List<FileLock>)value).isEmpty())
+                    {
+                        points.remove(key);
+                    }
+                }
+                else
+                {
+                    return false;
+                }
+            }
+            size--;
+            return true;
+        }
+
+        void replace(FileLock fl1, FileLock fl2)
+        {
+            if (remove(fl1))
+            {
+                insert(fl2);
+            }
+        }
+
+        List<FileLock> removeAll()
+        {
+            List<FileLock> result = new ArrayList<FileLock>(size);
+            result.addAll(ranges.values());
+            for (Object value : points.values())
+            {
+                if (value instanceof FileLock)
+                {
+                    result.add((FileLock)value);
+                }
+                else
+                {
+                    result.addAll((List<FileLock>)value);
+                }
+            }
+            ranges.clear();
+            points.clear();
+            size = 0;
+            return result;
+        }
+
+        private static boolean removeIdentical(List<FileLock> list, FileLock fl)
+        {
+            for (int i = 0; i < list.size(); i++)
+            {
+                if (list.get(i) == fl)
+                {
+                    list.remove(i);
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /*
+     * A file lock table that is over a system-wide map of all file locks.
+     */
+    private static final class SharedFileLockTable extends FileLockTable
+    {
+        // The system-wide map is a ConcurrentHashMap that is keyed on the FileKey.
+        // The map value is the index of the locks held on that file, shared by
+        // all channels to it. An index that became empty is removed from the map
+        // and marked dead, so a concurrent add must look it up again.
+        private static final ConcurrentHashMap<FileKey, SharedIndex> lockMap =
+            new ConcurrentHashMap<FileKey, SharedIndex>();
+
+        // the channel that this table is for, and the key of its file
+        private final Channel channel;
+        private final FileKey fileKey;
+
+        // the locks in the shared index that were acquired through this table,
+        // guarded by the shared index
+        private final IdentityHashMap<FileLock, Boolean> ownLocks =
+            new IdentityHashMap<FileLock, Boolean>();
+
+        SharedFileLockTable(Channel channel, FileDescriptor fd) throws IOException
+        {
+            this.channel = channel;
+            this.fileKey = FileKey.create(fd);
+        }
+
+        @Override
+        public void add(FileLock fl) throws OverlappingFileLockException
+        {
+            for (;;)
+            {
+                SharedIndex index = lockMap.get(fileKey);
+                if (index == null)
+                {
+                    index = new SharedIndex();
+                    SharedIndex prev = lockMap.putIfAbsent(fileKey, index);
+                    if (prev != null)
+                    {
+                        index = prev;
+                    }
+                }
+                synchronized (index)
+                {
+                    if (index.dead)
+                    {
+                        continue;
+                    }
+                    index.add(fl);
+                    ownLocks.put(fl, Boolean.TRUE);
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void remove(FileLock fl)
+        {
+            assert fl != null;
+            SharedIndex index = lockMap.get(fileKey);
+            if (index == null)
+            {
+                return;
+            }
+            synchronized (index)
+            {
+                if (ownLocks.remove(fl) != null)
+                {
+                    index.remove(fl);
+                    removeIfEmpty(index);
+                }
+            }
+        }
+
+        @Override
+        public List<FileLock> removeAll()
+        {
+            List<FileLock> result = new ArrayList<FileLock>();
+            SharedIndex index = lockMap.get(fileKey);
+            if (index != null)
+            {
+                synchronized (index)
+                {
+                    for (FileLock fl : ownLocks.keySet())
+                    {
+                        index.remove(fl);
+                        result.add(fl);
+                    }
+                    ownLocks.clear();
+                    removeIfEmpty(index);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void replace(FileLock fl1, FileLock fl2)
+        {
+            SharedIndex index = lockMap.get(fileKey);
+            assert index != null;
+            synchronized (index)
+            {
+                if (ownLocks.remove(fl1) != null)
+                {
+                    index.replace(fl1, fl2);
+                    ownLocks.put(fl2, Boolean.TRUE);
+                }
+            }
+        }
+
+        private void removeIfEmpty(SharedIndex index)
+        {
+            assert Thread.holdsLock(index);
+            if (index.size() == 0)
+            {
+                index.dead = true;
+                lockMap.remove(fileKey, index);
+            }
+        }
+
+        private static final class SharedIndex extends LockIndex
+        {
+            boolean dead;
+        }
+    }
+}
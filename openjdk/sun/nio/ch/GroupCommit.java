@@ -0,0 +1,145 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+package sun.nio.ch;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.security.AccessController;
+import java.util.concurrent.locks.LockSupport;
+import sun.security.action.GetPropertyAction;
+
+/*
+ * Coalesces concurrent FileChannel.force calls (group commit).
+ *
+ * Every caller takes a ticket. A caller becomes the leader when no sync is in
+ * flight; it optionally waits for the coalescing window, notes the highest
+ * ticket issued so far and syncs once on behalf of all those callers. Callers
+ * that arrive while a sync is in flight wait for the next sync, which covers
+ * every write they made before calling force.
+ *
+ * The window is set with the ikvm.nio.groupCommitWindow system property,
+ * in microseconds (default 0, i.e. only coalesce with an in-flight sync).
+ */
+final class GroupCommit
+{
+    private static final long windowNanos;
+
+    static {
+        long window = 0;
+        String value = AccessController.doPrivileged(
+            new GetPropertyAction("ikvm.nio.groupCommitWindow"));
+        if (value != null) {
+            try {
+                window = Math.max(0, Long.parseLong(value)) * 1000;
+            } catch (NumberFormatException _) {
+            }
+        }
+        windowNanos = window;
+    }
+
+    private final FileDispatcher nd;
+    private final FileDescriptor fd;
+
+    // guarded by this
+    private long issued;            // last ticket handed out
+    private long completed;         // last ticket covered by a successful sync
+    private boolean syncing;
+    private boolean metaDataPending;
+
+    GroupCommit(FileDispatcher nd, FileDescriptor fd)
+    {
+        this.nd = nd;
+        this.fd = fd;
+    }
+
+    /**
+     * Returns once a sync that started after this call has completed, or
+     * IOStatus.INTERRUPTED if the thread was interrupted while waiting.
+     */
+    int force(boolean metaData) throws IOException
+    {
+        long ticket;
+        synchronized (this)
+        {
+            ticket = ++issued;
+            metaDataPending |= metaData;
+            while (syncing)
+            {
+                try
+                {
+                    wait();
+                }
+                catch (InterruptedException _)
+                {
+                    Thread.currentThread().interrupt();
+                    return IOStatus.INTERRUPTED;
+                }
+                if (completed >= ticket)
+                {
+                    return 0;
+                }
+            }
+            if (completed >= ticket)
+            {
+                return 0;
+            }
+            syncing = true;
+        }
+
+        if (windowNanos > 0)
+        {
+            LockSupport.parkNanos(this, windowNanos);
+        }
+
+        long covered;
+        boolean meta;
+        synchronized (this)
+        {
+            covered = issued;
+            meta = metaDataPending;
+            metaDataPending = false;
+        }
+        boolean ok = false;
+        try
+        {
+            int rv = nd.force(fd, meta);
+            ok = true;
+            return rv;
+        }
+        finally
+        {
+            synchronized (this)
+            {
+                syncing = false;
+                if (ok)
+                {
+                    completed = covered;
+                }
+                else
+                {
+                    // the waiters retry with a sync of their own
+                    metaDataPending |= meta;
+                }
+                notifyAll();
+            }
+        }
+    }
+}
@@ -98,6 +98,15 @@ public class IOUtil {
             }
             return len;
         }
+        else if (nd.transfersDirectBuffers() && dst instanceof DirectBuffer)
+        {
+            int len = nd.readDirect(fd, ((DirectBuffer)dst).address() + dst.position(), dst.remaining());
+            if (len > 0)
+            {
+                dst.position(dst.position() + len);
+            }
+            return len;
+        }
         else
         {
             byte[] buf = new byte[dst.remaining()];
@@ -144,6 +153,15 @@ public class IOUtil {
             }
             return len;
         }
+        else if (nd.transfersDirectBuffers() && src instanceof DirectBuffer)
+        {
+            int len = nd.writeDirect(fd, ((DirectBuffer)src).address() + src.position(), src.remaining());
+            if (len > 0)
+            {
+                src.position(src.position() + len);
+            }
+            return len;
+        }
         else
         {
             int pos = src.position();
@@ -51,6 +51,23 @@ abstract class NativeDispatcher
 
     abstract long write(FileDescriptor fd, ByteBuffer[] bufs, int offset, int length) throws IOException;
 
+    /**
+     * Returns {@code true} if the contents of direct buffers should be
+     * transferred in place with {@link #readDirect} and {@link #writeDirect},
+     * instead of being copied through a heap array.
+     */
+    boolean transfersDirectBuffers() {
+        return false;
+    }
+
+    int readDirect(FileDescriptor fd, long address, int length) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
+    int writeDirect(FileDescriptor fd, long address, int length) throws IOException {
+        throw new UnsupportedOperationException();
+    }
+
     abstract void close(FileDescriptor fd) throws IOException;
 
     // Prepare the given fd for closing by duping it to a known internal fd
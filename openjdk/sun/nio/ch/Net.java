@@ -423,6 +423,39 @@ public class Net {
     // Due to oddities SO_REUSEADDR on windows reuse is ignored
     private static native FileDescriptor socket0(boolean preferIPv6, boolean stream, boolean reuse);
 
+    // -- SO_REUSEPORT --
+
+    /**
+     * Tells whether SO_REUSEPORT can be set (currently only on Linux).
+     */
+    public static boolean isReusePortAvailable() {
+        return ikvm.internal.Util.LINUX;
+    }
+
+    /**
+     * Enables or disables SO_REUSEPORT. To share a port, the option must be
+     * set on every socket before it is bound.
+     */
+    public static void setReusePort(FileDescriptor fd, boolean on)
+        throws IOException
+    {
+        if (!isReusePortAvailable())
+            throw new UnsupportedOperationException("SO_REUSEPORT not supported");
+        setReusePort0(fd, on);
+    }
+
+    public static boolean getReusePort(FileDescriptor fd) throws IOException {
+        if (!isReusePortAvailable())
+            throw new UnsupportedOperationException("SO_REUSEPORT not supported");
+        return getReusePort0(fd);
+    }
+
+    private static native void setReusePort0(FileDescriptor fd, boolean on)
+        throws IOException;
+
+    private static native boolean getReusePort0(FileDescriptor fd)
+        throws IOException;
+
     public static void bind(FileDescriptor fd, InetAddress addr, int port)
         throws IOException
     {
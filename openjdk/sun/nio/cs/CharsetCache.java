@@ -0,0 +1,149 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package sun.nio.cs;
+
+import java.nio.charset.Charset;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * [IKVM] Process wide charset name cache used by Charset.lookup (see map.xml), which replaces
+ * the JDK's two entry cache. Code that alternates between more than two names (content
+ * negotiation, JDBC drivers, String(byte[], String) with various encodings) would otherwise miss
+ * and go through the providers on almost every call.
+ *
+ * Names are case insensitive, so an entry is stored under the name as given and its ASCII lower
+ * case form. Names that aren't supported are cached as well, but only once the VM has booted and
+ * only for lookups that aren't nested in another lookup: before that, and while a provider is
+ * being loaded (e.g. one that calls Charset.forName itself), Charset.lookupViaProviders returns
+ * null without asking the providers. Illegal names aren't cached, because
+ * Charset.lookup has to keep throwing IllegalCharsetNameException for them. Names containing
+ * non-ASCII characters (which are never legal) aren't lower cased. This is because, for example,
+ * the Kelvin sign lower cases to 'k' and the name would then resolve to a charset.
+ *
+ * When the cache is full it is cleared, so a stream of junk names can't make it grow without
+ * bound or permanently displace the useful entries.
+ */
+public final class CharsetCache
+{
+    private static final int MAX_SIZE = 512;
+    private static final Object UNSUPPORTED = new Object();
+    private static final ConcurrentHashMap<String, Object> cache = new ConcurrentHashMap<String, Object>();
+    // number of Charset.lookup2 calls in progress on this thread
+    @cli.System.ThreadStaticAttribute.Annotation
+    private static int depth;
+
+    private CharsetCache() { }
+
+    // returns the Charset, UNSUPPORTED (which Charset.lookup turns into null) or null if the name isn't cached
+    public static Object get(String name)
+    {
+        if (name == null)
+        {
+            throw new IllegalArgumentException("Null charset name");
+        }
+        Object value = cache.get(name);
+        if (value == null)
+        {
+            String key = toLowerCase(name);
+            if (key != null && key != name && (value = cache.get(key)) != null)
+            {
+                add(name, value);
+            }
+        }
+        return value;
+    }
+
+    // called by Charset.lookup before and (in a finally block) after lookup2
+    public static void enter()
+    {
+        depth++;
+    }
+
+    public static void exit()
+    {
+        depth--;
+    }
+
+    // records the result of Charset.lookup2 and returns it
+    public static Charset put(Charset cs, String name)
+    {
+        if (cs == null && (depth != 0 || !sun.misc.VM.isBooted()))
+        {
+            // the providers may not have been asked
+            return null;
+        }
+        Object value = cs == null ? UNSUPPORTED : cs;
+        add(name, value);
+        String key = toLowerCase(name);
+        if (key != null && key != name)
+        {
+            add(key, value);
+        }
+        return cs;
+    }
+
+    private static void add(String name, Object value)
+    {
+        if (cache.size() >= MAX_SIZE)
+        {
+            cache.clear();
+        }
+        cache.put(name, value);
+    }
+
+    // returns null for names that aren't pure ASCII
+    private static String toLowerCase(String name)
+    {
+        int len = name.length();
+        int i = 0;
+        for (; i < len; i++)
+        {
+            char c = name.charAt(i);
+            if (c >= 0x80)
+            {
+                return null;
+            }
+            if (c >= 'A' && c <= 'Z')
+            {
+                break;
+            }
+        }
+        if (i == len)
+        {
+            return name;
+        }
+        char[] buf = name.toCharArray();
+        for (; i < len; i++)
+        {
+            char c = buf[i];
+            if (c >= 0x80)
+            {
+                return null;
+            }
+            if (c >= 'A' && c <= 'Z')
+            {
+                buf[i] = (char)(c + ('a' - 'A'));
+            }
+        }
+        return new String(buf);
+    }
+}
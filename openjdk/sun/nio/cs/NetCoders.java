@@ -0,0 +1,306 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package sun.nio.cs;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/*
+ * [IKVM] UTF-8, ISO-8859-1 and US-ASCII charsets whose coders convert whole array backed
+ * buffer ranges with System.Text.Encoding, instead of the per character loops of the JDK's
+ * coders.
+ *
+ * The encodings throw on malformed or unmappable input. The bulk conversion is only used for
+ * ranges that contain nothing but well-formed, mappable input and complete sequences. So when
+ * a conversion succeeds its result is what the JDK's coder would have produced. Everything else
+ * (errors, incomplete sequences at the end of the input, buffers that aren't array backed) is
+ * left to the JDK's coder, which reports errors with the exact JDK lengths and positions. After
+ * a range fails, the coder keeps using the JDK's coder until it is reset, so malformed input
+ * doesn't cause an exception per buffer.
+ *
+ * The coders also implement ArrayDecoder/ArrayEncoder (used by StringCoding and ZipCoder) by
+ * delegating to the JDK's coder, so the error actions and replacement are passed on to it.
+ */
+final class NetCoders
+{
+    // below this the JDK's loop is about as fast as the call into System.Text
+    private static final int MIN_BULK = 32;
+
+    private NetCoders() { }
+
+    private static cli.System.Text.Encoding getEncoding(int codePage)
+    {
+        try
+        {
+            if (false) throw new cli.System.ArgumentException();
+            if (false) throw new cli.System.NotSupportedException();
+            return cli.System.Text.Encoding.GetEncoding(codePage,
+                cli.System.Text.EncoderFallback.get_ExceptionFallback(),
+                cli.System.Text.DecoderFallback.get_ExceptionFallback());
+        }
+        catch (cli.System.ArgumentException _)
+        {
+            return null;
+        }
+        catch (cli.System.NotSupportedException _)
+        {
+            return null;
+        }
+    }
+
+    static final class UTF8 extends UTF_8
+    {
+        private static final cli.System.Text.Encoding ENCODING = new cli.System.Text.UTF8Encoding(false, true);
+
+        public CharsetDecoder newDecoder()
+        {
+            return new Decoder(this, super.newDecoder(), ENCODING, true);
+        }
+
+        public CharsetEncoder newEncoder()
+        {
+            return new Encoder(this, super.newEncoder(), ENCODING, 3);
+        }
+    }
+
+    static final class Latin1 extends ISO_8859_1
+    {
+        private static final cli.System.Text.Encoding ENCODING = getEncoding(28591);
+
+        public CharsetDecoder newDecoder()
+        {
+            return new Decoder(this, super.newDecoder(), ENCODING, false);
+        }
+
+        public CharsetEncoder newEncoder()
+        {
+            return new Encoder(this, super.newEncoder(), ENCODING, 1);
+        }
+    }
+
+    static final class ASCII extends US_ASCII
+    {
+        private static final cli.System.Text.Encoding ENCODING = getEncoding(20127);
+
+        public CharsetDecoder newDecoder()
+        {
+            return new Decoder(this, super.newDecoder(), ENCODING, false);
+        }
+
+        public CharsetEncoder newEncoder()
+        {
+            return new Encoder(this, super.newEncoder(), ENCODING, 1);
+        }
+    }
+
+    // returns the length of the longest prefix of the n bytes at off that doesn't end in the
+    // middle of a UTF-8 sequence (invalid bytes are left for the encoding to reject)
+    private static int trimIncompleteUTF8(byte[] b, int off, int n)
+    {
+        for (int i = n - 1, min = Math.max(0, n - 4); i >= min; i--)
+        {
+            int c = b[off + i] & 0xFF;
+            if (c < 0x80)
+            {
+                return n;
+            }
+            if (c >= 0xC0)
+            {
+                int len = c >= 0xF0 ? 4 : c >= 0xE0 ? 3 : 2;
+                return i + len > n ? i : n;
+            }
+        }
+        return n;
+    }
+
+    private static final class Decoder extends CharsetDecoder implements ArrayDecoder
+    {
+        private final CharsetDecoder jdk;
+        private final cli.System.Text.Encoding encoding;
+        private final boolean utf8;
+        private boolean bulk;
+
+        Decoder(Charset cs, CharsetDecoder jdk, cli.System.Text.Encoding encoding, boolean utf8)
+        {
+            super(cs, jdk.averageCharsPerByte(), jdk.maxCharsPerByte());
+            this.jdk = jdk;
+            this.encoding = encoding;
+            this.utf8 = utf8;
+            this.bulk = encoding != null;
+        }
+
+        protected CoderResult decodeLoop(ByteBuffer src, CharBuffer dst)
+        {
+            if (bulk && src.hasArray() && dst.hasArray())
+            {
+                byte[] sa = src.array();
+                int sp = src.arrayOffset() + src.position();
+                // none of these charsets produces more chars than it consumes bytes
+                int n = Math.min(src.remaining(), dst.remaining());
+                if (utf8)
+                {
+                    n = trimIncompleteUTF8(sa, sp, n);
+                }
+                if (n >= MIN_BULK)
+                {
+                    try
+                    {
+                        if (false) throw new cli.System.ArgumentException();
+                        int count = encoding.GetChars(sa, sp, n, dst.array(), dst.arrayOffset() + dst.position());
+                        src.position(src.position() + n);
+                        dst.position(dst.position() + count);
+                    }
+                    catch (cli.System.ArgumentException _)
+                    {
+                        // DecoderFallbackException, the JDK's decoder reports the error
+                        bulk = false;
+                    }
+                }
+            }
+            return jdk.decode(src, dst, false);
+        }
+
+        public int decode(byte[] src, int off, int len, char[] dst)
+        {
+            return ((ArrayDecoder)jdk).decode(src, off, len, dst);
+        }
+
+        protected void implReplaceWith(String newReplacement)
+        {
+            // called by the CharsetDecoder constructor
+            if (jdk != null)
+            {
+                jdk.replaceWith(newReplacement);
+            }
+        }
+
+        protected void implOnMalformedInput(CodingErrorAction newAction)
+        {
+            jdk.onMalformedInput(newAction);
+        }
+
+        protected void implOnUnmappableCharacter(CodingErrorAction newAction)
+        {
+            jdk.onUnmappableCharacter(newAction);
+        }
+
+        protected void implReset()
+        {
+            jdk.reset();
+            bulk = encoding != null;
+        }
+    }
+
+    private static final class Encoder extends CharsetEncoder implements ArrayEncoder
+    {
+        private final CharsetEncoder jdk;
+        private final cli.System.Text.Encoding encoding;
+        private final int maxBytesPerChar;
+        private boolean bulk;
+
+        Encoder(Charset cs, CharsetEncoder jdk, cli.System.Text.Encoding encoding, int maxBytesPerChar)
+        {
+            super(cs, jdk.averageBytesPerChar(), jdk.maxBytesPerChar(), jdk.replacement());
+            this.jdk = jdk;
+            this.encoding = encoding;
+            this.maxBytesPerChar = maxBytesPerChar;
+            this.bulk = encoding != null;
+        }
+
+        public boolean canEncode(char c)
+        {
+            return jdk.canEncode(c);
+        }
+
+        public boolean isLegalReplacement(byte[] repl)
+        {
+            // called by the CharsetEncoder constructor (with the JDK encoder's replacement)
+            return jdk == null || jdk.isLegalReplacement(repl);
+        }
+
+        protected CoderResult encodeLoop(CharBuffer src, ByteBuffer dst)
+        {
+            if (bulk && src.hasArray() && dst.hasArray())
+            {
+                char[] sa = src.array();
+                int sp = src.arrayOffset() + src.position();
+                int n = Math.min(src.remaining(), dst.remaining() / maxBytesPerChar);
+                if (n > 0 && Character.isHighSurrogate(sa[sp + n - 1]))
+                {
+                    // the low surrogate may be in the next range
+                    n--;
+                }
+                if (n >= MIN_BULK)
+                {
+                    try
+                    {
+                        if (false) throw new cli.System.ArgumentException();
+                        int count = encoding.GetBytes(sa, sp, n, dst.array(), dst.arrayOffset() + dst.position());
+                        src.position(src.position() + n);
+                        dst.position(dst.position() + count);
+                    }
+                    catch (cli.System.ArgumentException _)
+                    {
+                        // EncoderFallbackException, the JDK's encoder reports the error
+                        bulk = false;
+                    }
+                }
+            }
+            return jdk.encode(src, dst, false);
+        }
+
+        public int encode(char[] src, int off, int len, byte[] dst)
+        {
+            return ((ArrayEncoder)jdk).encode(src, off, len, dst);
+        }
+
+        protected void implReplaceWith(byte[] newReplacement)
+        {
+            // called by the CharsetEncoder constructor
+            if (jdk != null)
+            {
+                jdk.replaceWith(newReplacement);
+            }
+        }
+
+        protected void implOnMalformedInput(CodingErrorAction newAction)
+        {
+            jdk.onMalformedInput(newAction);
+        }
+
+        protected void implOnUnmappableCharacter(CodingErrorAction newAction)
+        {
+            jdk.onUnmappableCharacter(newAction);
+        }
+
+        protected void implReset()
+        {
+            jdk.reset();
+            bulk = encoding != null;
+        }
+    }
+}
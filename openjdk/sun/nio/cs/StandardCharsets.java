@@ -607,6 +607,7 @@ public class StandardCharsets
         }
 
         protected void init(Object[] ht) {
+            // [IKVM] UTF-8, ISO-8859-1 and US-ASCII use the System.Text backed coders in NetCoders
             ht[0] = new Object[] { "ibm862", "IBM862" };
             ht[2] = new Object[] { "ibm866", "IBM866",
                          new Object[] { "utf-32", "UTF_32",
@@ -621,9 +622,9 @@ public class StandardCharsets
             ht[6] = new Object[] { "windows-1257", "MS1257" };
             ht[7] = new Object[] { "utf-16be", "UTF_16BE" };
             ht[8] = new Object[] { "iso-8859-2", "ISO_8859_2",
-                         new Object[] { "iso-8859-1", "ISO_8859_1" } };
+                         new Object[] { "iso-8859-1", "NetCoders$Latin1" } };
             ht[9] = new Object[] { "iso-8859-4", "ISO_8859_4",
-                         new Object[] { "utf-8", "UTF_8" } };
+                         new Object[] { "utf-8", "NetCoders$UTF8" } };
             ht[10] = new Object[] { "iso-8859-5", "ISO_8859_5" };
             ht[11] = new Object[] { "x-ibm874", "IBM874",
                          new Object[] { "iso-8859-7", "ISO_8859_7" } };
@@ -633,7 +634,7 @@ public class StandardCharsets
             ht[16] = new Object[] { "ibm852", "IBM852",
                          new Object[] { "ibm775", "IBM775" } };
             ht[17] = new Object[] { "iso-8859-13", "ISO_8859_13",
-                         new Object[] { "us-ascii", "US_ASCII" } };
+                         new Object[] { "us-ascii", "NetCoders$ASCII" } };
             ht[18] = new Object[] { "ibm855", "IBM855",
                          new Object[] { "ibm437", "IBM437",
                              new Object[] { "iso-8859-15", "ISO_8859_15" } } };
@@ -679,9 +680,9 @@ public class StandardCharsets
             ht[6] = new Object[] { "windows-1257", null };
             ht[7] = new Object[] { "utf-16be", null };
             ht[8] = new Object[] { "iso-8859-2", null,
-                         new Object[] { "iso-8859-1", null } };
+                         new Object[] { "iso-8859-1", new NetCoders.Latin1() } };
             ht[9] = new Object[] { "iso-8859-4", null,
-                         new Object[] { "utf-8", new UTF_8() } };
+                         new Object[] { "utf-8", new NetCoders.UTF8() } };
             ht[10] = new Object[] { "iso-8859-5", null };
             ht[11] = new Object[] { "x-ibm874", null,
                          new Object[] { "iso-8859-7", null } };
@@ -691,7 +692,7 @@ public class StandardCharsets
             ht[16] = new Object[] { "ibm852", null,
                          new Object[] { "ibm775", null } };
             ht[17] = new Object[] { "iso-8859-13", null,
-                         new Object[] { "us-ascii", null } };
+                         new Object[] { "us-ascii", new NetCoders.ASCII() } };
             ht[18] = new Object[] { "ibm855", null,
                          new Object[] { "ibm437", null,
                              new Object[] { "iso-8859-15", null } } };
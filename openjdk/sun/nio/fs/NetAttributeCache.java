@@ -0,0 +1,242 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package sun.nio.fs;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.AccessController;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import sun.security.action.GetPropertyAction;
+import static ikvm.internal.Util.WINDOWS;
+
+/*
+ * Short-lived cache of file attributes for the default file system.
+ *
+ * Disabled unless the ikvm.nio.attributeCache.ttl system property is set to a
+ * positive number of milliseconds. The number of entries is bounded by
+ * ikvm.nio.attributeCache.maxEntries (default 8192), the oldest entries are
+ * dropped first. Both positive and negative (file does not exist) lookups are
+ * cached.
+ *
+ * Changes made through NetFileSystemProvider invalidate the affected entries
+ * (and the parent directory) right away; changes made by other processes are
+ * only seen after the TTL expires or when a WatchService reports them.
+ */
+public final class NetAttributeCache
+{
+    private static final long ttlNanos;
+    private static final int maxEntries;
+
+    static {
+        ttlNanos = Math.max(0, getLongProperty("ikvm.nio.attributeCache.ttl", 0)) * 1000000;
+        maxEntries = (int)Math.max(1, Math.min(Integer.MAX_VALUE, getLongProperty("ikvm.nio.attributeCache.maxEntries", 8192)));
+    }
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    // guarded by itself
+    private static final LinkedHashMap<String, Entry> map = new LinkedHashMap<String, Entry>() {
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    static final class Entry
+    {
+        // null when the file does not exist
+        final BasicFileAttributes attrs;
+        final long expires;
+
+        Entry(BasicFileAttributes attrs, long expires)
+        {
+            this.attrs = attrs;
+            this.expires = expires;
+        }
+    }
+
+    private NetAttributeCache() { }
+
+    private static long getLongProperty(String name, long defaultValue)
+    {
+        String value = AccessController.doPrivileged(new GetPropertyAction(name));
+        if (value != null)
+        {
+            try
+            {
+                return Long.parseLong(value);
+            }
+            catch (NumberFormatException _)
+            {
+            }
+        }
+        return defaultValue;
+    }
+
+    static boolean isEnabled()
+    {
+        return ttlNanos != 0;
+    }
+
+    // the key is the full path, so that relative and absolute names of the same file
+    // (and WatchService events) hit the same entry
+    private static String key(String path)
+    {
+        try
+        {
+            if (false) throw new cli.System.ArgumentException();
+            if (false) throw new cli.System.NotSupportedException();
+            if (false) throw new cli.System.IO.IOException();
+            if (false) throw new cli.System.Security.SecurityException();
+            String full = cli.System.IO.Path.GetFullPath(path);
+            return WINDOWS ? full.toUpperCase() : full;
+        }
+        catch (cli.System.ArgumentException
+             | cli.System.NotSupportedException
+             | cli.System.IO.IOException
+             | cli.System.Security.SecurityException _)
+        {
+            return null;
+        }
+    }
+
+    // returns null on a miss
+    static Entry get(String path)
+    {
+        String key = key(path);
+        Entry entry = null;
+        if (key != null)
+        {
+            synchronized (map)
+            {
+                entry = map.get(key);
+                if (entry != null && entry.expires - System.nanoTime() <= 0)
+                {
+                    map.remove(key);
+                    entry = null;
+                }
+            }
+        }
+        (entry == null ? misses : hits).incrementAndGet();
+        return entry;
+    }
+
+    static void put(String path, BasicFileAttributes attrs)
+    {
+        String key = key(path);
+        if (key != null)
+        {
+            Entry entry = new Entry(attrs, System.nanoTime() + ttlNanos);
+            synchronized (map)
+            {
+                map.put(key, entry);
+            }
+        }
+    }
+
+    /**
+     * Drops the entries for path and its parent directory (whose timestamps
+     * change too).
+     */
+    public static void invalidate(String path)
+    {
+        if (!isEnabled())
+        {
+            return;
+        }
+        String key = key(path);
+        if (key != null)
+        {
+            String parent = cli.System.IO.Path.GetDirectoryName(key);
+            synchronized (map)
+            {
+                map.remove(key);
+                if (parent != null)
+                {
+                    map.remove(parent);
+                }
+            }
+        }
+    }
+
+    // used when a directory is moved, because the names of everything below it change
+    static void invalidateAll()
+    {
+        if (isEnabled())
+        {
+            synchronized (map)
+            {
+                map.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the number of lookups that were answered from the cache.
+     */
+    public static long getHitCount()
+    {
+        return hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that had to go to the file system.
+     */
+    public static long getMissCount()
+    {
+        return misses.get();
+    }
+
+    /**
+     * Returns the number of cached entries, including expired ones that have
+     * not been evicted yet.
+     */
+    public static int size()
+    {
+        synchronized (map)
+        {
+            return map.size();
+        }
+    }
+
+    /**
+     * Drops all cached entries and resets the statistics.
+     */
+    public static void clear()
+    {
+        synchronized (map)
+        {
+            map.clear();
+        }
+        hits.set(0);
+        misses.set(0);
+    }
+
+    /**
+     * Returns the TTL in milliseconds, 0 means the cache is disabled.
+     */
+    public static long getTimeToLive()
+    {
+        return ttlNanos / 1000000;
+    }
+}
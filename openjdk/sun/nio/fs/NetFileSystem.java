@@ -48,7 +48,9 @@ import static ikvm.internal.Util.WINDOWS;
 
 final class NetFileSystem extends FileSystem
 {
-    private static final Set<String> attributes = Collections.unmodifiableSet(new HashSet<String>(Arrays.asList("basic")));
+    private static final Set<String> attributes = Collections.unmodifiableSet(NetUnixFileAttributes.isSupported()
+        ? new HashSet<String>(Arrays.asList("basic", "posix", "unix", "owner"))
+        : new HashSet<String>(Arrays.asList("basic")));
     private final NetFileSystemProvider provider;
     private final String separator = Character.toString(cli.System.IO.Path.DirectorySeparatorChar);
 
@@ -209,6 +211,10 @@ final class NetFileSystem extends FileSystem
 
     public UserPrincipalLookupService getUserPrincipalLookupService()
     {
+        if (NetUnixFileAttributes.isSupported())
+        {
+            return NetUnixUserPrincipals.lookupService;
+        }
         throw new UnsupportedOperationException();
     }
 
@@ -334,6 +340,7 @@ final class NetFileSystem extends FileSystem
                         public void Invoke(Object sender, FileSystemEventArgs e) {
                             synchronized (NetWatchKey.this) {
                                 if (modified.contains(e.get_Name())) {
+                                    NetAttributeCache.invalidate(e.get_FullPath());
                                     // we already have an ENTRY_MODIFY event pending
                                     return;
                                 }
@@ -362,6 +369,7 @@ final class NetFileSystem extends FileSystem
 
             WatchEvent<?> createEvent(final FileSystemEventArgs e)
             {
+                NetAttributeCache.invalidate(e.get_FullPath());
                 return new WatchEvent<Path>() {
                     public Path context() {
                         return new NetPath((NetFileSystem)path.getFileSystem(), e.get_Name());
@@ -493,6 +501,11 @@ final class NetFileSystem extends FileSystem
 
     public WatchService newWatchService() throws IOException
     {
+        WatchService watcher = NetInotifyWatchService.create(this);
+        if (watcher != null)
+        {
+            return watcher;
+        }
         return new NetWatchService();
     }
 }
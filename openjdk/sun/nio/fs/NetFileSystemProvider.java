@@ -26,6 +26,7 @@ package sun.nio.fs;
 
 import ikvm.internal.NotYetImplementedError;
 import static ikvm.internal.Util.WINDOWS;
+import cli.System.Collections.IEnumerator;
 import cli.System.IO.Directory;
 import cli.System.IO.DirectoryInfo;
 import cli.System.IO.DriveInfo;
@@ -35,11 +36,13 @@ import cli.System.IO.FileInfo;
 import cli.System.IO.FileMode;
 import cli.System.IO.FileShare;
 import cli.System.IO.FileStream;
+import cli.System.IO.FileSystemInfo;
 import cli.System.IO.FileOptions;
 import cli.System.Runtime.InteropServices.DllImportAttribute;
 import cli.System.Runtime.InteropServices.Marshal;
 import cli.System.Security.AccessControl.FileSystemRights;
 import com.sun.nio.file.ExtendedOpenOption;
+import ikvm.nio.FileOpenOption;
 import java.io.FileDescriptor;
 import java.io.IOException;
 import java.net.URI;
@@ -59,6 +62,8 @@ import sun.nio.ch.ThreadPool;
 
 final class NetFileSystemProvider extends AbstractFileSystemProvider
 {
+    // FileOptions value that FileStream passes through as FILE_FLAG_NO_BUFFERING (Windows only)
+    private static final int FILE_FLAG_NO_BUFFERING = 0x20000000;
     private final NetFileSystem fs = new NetFileSystem(this);
     private final HashMap<String, FileStore> stores = new HashMap<String, FileStore>();
 
@@ -234,6 +239,8 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         boolean write = false;
         boolean append = false;
         boolean truncate = false;
+        boolean direct = false;
+        boolean groupCommit = false;
         for (OpenOption opt : opts)
         {
             if (opt instanceof StandardOpenOption)
@@ -292,6 +299,29 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
                         throw new UnsupportedOperationException();
                 }
             }
+            else if (opt instanceof FileOpenOption)
+            {
+                switch ((FileOpenOption)opt)
+                {
+                    case DIRECT:
+                        direct = true;
+                        break;
+                    case NOBUFFER:
+                        // channels never use the FileStream buffer
+                        break;
+                    case SEQUENTIAL:
+                        options |= FileOptions.SequentialScan;
+                        break;
+                    case RANDOM:
+                        options |= FileOptions.RandomAccess;
+                        break;
+                    case GROUP_COMMIT:
+                        groupCommit = true;
+                        break;
+                    default:
+                        throw new UnsupportedOperationException();
+                }
+            }
             else
             {
                 // null check
@@ -309,6 +339,16 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         {
             throw new IllegalArgumentException("READ + APPEND not allowed");
         }
+
+        if ((options & (FileOptions.SequentialScan | FileOptions.RandomAccess)) == (FileOptions.SequentialScan | FileOptions.RandomAccess))
+        {
+            throw new IllegalArgumentException("SEQUENTIAL + RANDOM not allowed");
+        }
+
+        if (direct && WINDOWS)
+        {
+            options |= FILE_FLAG_NO_BUFFERING;
+        }
         
         if (truncate)
         {
@@ -340,10 +380,22 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
             }
         }
 
-        return FileChannelImpl.open(open(npath.path, mode, rights, share, options), npath.path, read, write, append, null);
+        // a buffer size of 1 disables the FileStream buffer, the channel's callers
+        // do their own buffering and reads and writes then go directly to the OS
+        FileDescriptor fd = open(npath.path, mode, rights, share, options, 1);
+        if (write || mode != FileMode.Open)
+        {
+            NetAttributeCache.invalidate(npath.path);
+        }
+        return FileChannelImpl.open(fd, npath.path, read, write, append, direct, groupCommit, null);
     }
 
     private static FileDescriptor open(String path, int mode, int rights, int share, int options) throws IOException
+    {
+        return open(path, mode, rights, share, options, 8);
+    }
+
+    private static FileDescriptor open(String path, int mode, int rights, int share, int options, int bufferSize) throws IOException
     {
         SecurityManager sm = System.getSecurityManager();
         if (sm != null)
@@ -371,7 +423,7 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
             if (false) throw new cli.System.IO.IOException();
             if (false) throw new cli.System.Security.SecurityException();
             if (false) throw new cli.System.UnauthorizedAccessException();
-            return FileDescriptor.fromStream(new FileStream(path, FileMode.wrap(mode), FileSystemRights.wrap(rights), FileShare.wrap(share), 8, FileOptions.wrap(options)));
+            return FileDescriptor.fromStream(new FileStream(path, FileMode.wrap(mode), FileSystemRights.wrap(rights), FileShare.wrap(share), bufferSize, FileOptions.wrap(options)));
         }
         catch (cli.System.ArgumentException x)
         {
@@ -409,7 +461,8 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
 
     public DirectoryStream<Path> newDirectoryStream(Path dir, final DirectoryStream.Filter<? super Path> filter) throws IOException
     {
-        final String ndir = NetPath.from(dir).path;
+        final NetPath npdir = NetPath.from(dir);
+        final String ndir = npdir.path;
         // null check
         filter.getClass();
 
@@ -426,32 +479,66 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
             if (false) throw new cli.System.IO.IOException();
             if (false) throw new cli.System.Security.SecurityException();
             if (false) throw new cli.System.UnauthorizedAccessException();
-            final String[] files = Directory.GetFileSystemEntries(ndir);
+            // entries are streamed from the enumerator as the iterator advances, we pull
+            // the first one here so that errors opening the directory are reported now
+            final IEnumerator e = new DirectoryInfo(ndir).EnumerateFileSystemInfos().GetEnumerator();
+            final boolean empty = !e.MoveNext();
             return new DirectoryStream<Path>() {
+                private boolean iteratorReturned;
                 private boolean closed;
+                private boolean done = empty;
                 public Iterator<Path> iterator() {
-                    if (closed) {
-                        throw new IllegalStateException();
+                    synchronized (e) {
+                        if (closed || iteratorReturned) {
+                            throw new IllegalStateException();
+                        }
+                        iteratorReturned = true;
                     }
-                    closed = true;
                     return new Iterator<Path>() {
-                        private int pos;
+                        private boolean primed = true;
                         private Path filtered;
                         public boolean hasNext() {
-                            if (filtered == null) {
-                                while (pos != files.length) {
-                                    Path p = new NetPath(fs, cli.System.IO.Path.Combine(ndir, files[pos++]));
+                            synchronized (e) {
+                                while (filtered == null && !done) {
+                                    FileSystemInfo info = nextInfo();
+                                    if (info == null) {
+                                        break;
+                                    }
+                                    Path p = new NetPath.NetPathWithAttributes(npdir, info.get_Name(),
+                                        new DosFileAttributesViewImpl.DosFileAttributesImpl(info, true));
                                     try {
                                         if (filter.accept(p)) {
                                             filtered = p;
-                                            break;
                                         }
                                     } catch (IOException x) {
                                         throw new DirectoryIteratorException(x);
                                     }
                                 }
+                                return filtered != null;
+                            }
+                        }
+                        private FileSystemInfo nextInfo() {
+                            if (closed) {
+                                done = true;
+                                return null;
+                            }
+                            try {
+                                if (false) throw new cli.System.IO.IOException();
+                                if (false) throw new cli.System.Security.SecurityException();
+                                if (false) throw new cli.System.UnauthorizedAccessException();
+                                if (primed) {
+                                    primed = false;
+                                } else if (!e.MoveNext()) {
+                                    done = true;
+                                    return null;
+                                }
+                                return (FileSystemInfo)e.get_Current();
+                            } catch (cli.System.IO.IOException
+                                   | cli.System.Security.SecurityException
+                                   | cli.System.UnauthorizedAccessException x) {
+                                done = true;
+                                throw new DirectoryIteratorException(new IOException(x.getMessage()));
                             }
-                            return filtered != null;
                         }
                         public Path next() {
                             if (!hasNext()) {
@@ -467,7 +554,14 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
                     };
                 }
                 public void close() {
-                    closed = true;
+                    synchronized (e) {
+                        if (!closed) {
+                            closed = true;
+                            done = true;
+                            // release the underlying find handle / directory stream
+                            ((cli.System.IDisposable)e).Dispose();
+                        }
+                    }
                 }
             };
         }
@@ -505,6 +599,7 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
             if (false) throw new cli.System.Security.SecurityException();
             if (false) throw new cli.System.UnauthorizedAccessException();
             Directory.CreateDirectory(ndir.path);
+            NetAttributeCache.invalidate(ndir.path);
         }
         catch (cli.System.ArgumentException
              | cli.System.IO.IOException
@@ -623,6 +718,10 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         {
             throw new AccessDeniedException(nsource.path, ntarget.path, x.getMessage());
         }
+        finally
+        {
+            NetAttributeCache.invalidate(ntarget.path);
+        }
     }
 
     @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
@@ -664,34 +763,43 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         }
         if (atomicMove)
         {
-            int MOVEFILE_REPLACE_EXISTING = 1;
-            if (MoveFileEx(nsource.path, ntarget.path, MOVEFILE_REPLACE_EXISTING) == 0)
-            {
-                final int ERROR_FILE_NOT_FOUND = 2;
-                final int ERROR_PATH_NOT_FOUND = 3;
-                final int ERROR_ACCESS_DENIED = 5;
-                final int ERROR_NOT_SAME_DEVICE = 17;
-                final int ERROR_FILE_EXISTS = 80;
-                final int ERROR_ALREADY_EXISTS = 183;
-                int lastError = Marshal.GetLastWin32Error();
-                switch (lastError)
+            try
+            {
+                int MOVEFILE_REPLACE_EXISTING = 1;
+                if (MoveFileEx(nsource.path, ntarget.path, MOVEFILE_REPLACE_EXISTING) == 0)
                 {
-                    case ERROR_FILE_NOT_FOUND:
-                    case ERROR_PATH_NOT_FOUND:
-                        throw new NoSuchFileException(nsource.path, ntarget.path, null);
-                    case ERROR_ACCESS_DENIED:
-                        throw new AccessDeniedException(nsource.path, ntarget.path, null);
-                    case ERROR_NOT_SAME_DEVICE:
-                        throw new AtomicMoveNotSupportedException(nsource.path, ntarget.path, "Unsupported copy option");
-                    case ERROR_FILE_EXISTS:
-                    case ERROR_ALREADY_EXISTS:
-                        throw new FileAlreadyExistsException(nsource.path, ntarget.path, null);
-                    default:
-                        throw new FileSystemException(nsource.path, ntarget.path, "Error " + lastError);
+                    final int ERROR_FILE_NOT_FOUND = 2;
+                    final int ERROR_PATH_NOT_FOUND = 3;
+                    final int ERROR_ACCESS_DENIED = 5;
+                    final int ERROR_NOT_SAME_DEVICE = 17;
+                    final int ERROR_FILE_EXISTS = 80;
+                    final int ERROR_ALREADY_EXISTS = 183;
+                    int lastError = Marshal.GetLastWin32Error();
+                    switch (lastError)
+                    {
+                        case ERROR_FILE_NOT_FOUND:
+                        case ERROR_PATH_NOT_FOUND:
+                            throw new NoSuchFileException(nsource.path, ntarget.path, null);
+                        case ERROR_ACCESS_DENIED:
+                            throw new AccessDeniedException(nsource.path, ntarget.path, null);
+                        case ERROR_NOT_SAME_DEVICE:
+                            throw new AtomicMoveNotSupportedException(nsource.path, ntarget.path, "Unsupported copy option");
+                        case ERROR_FILE_EXISTS:
+                        case ERROR_ALREADY_EXISTS:
+                            throw new FileAlreadyExistsException(nsource.path, ntarget.path, null);
+                        default:
+                            throw new FileSystemException(nsource.path, ntarget.path, "Error " + lastError);
+                    }
                 }
             }
+            finally
+            {
+                // we don't know if a directory was moved, which changes the names of everything below it
+                NetAttributeCache.invalidateAll();
+            }
             return;
         }
+        boolean directory = false;
         try
         {
             if (false) throw new cli.System.ArgumentException();
@@ -727,6 +835,7 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
             }
             if (Directory.Exists(nsource.path))
             {
+                directory = true;
                 Directory.Move(nsource.path, ntarget.path);
             }
             else
@@ -750,6 +859,19 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         {
             throw new AccessDeniedException(nsource.path, ntarget.path, x.getMessage());
         }
+        finally
+        {
+            if (directory)
+            {
+                // this changes the names of everything below the directory
+                NetAttributeCache.invalidateAll();
+            }
+            else
+            {
+                NetAttributeCache.invalidate(nsource.path);
+                NetAttributeCache.invalidate(ntarget.path);
+            }
+        }
     }
 
     @DllImportAttribute.Annotation(value="kernel32", SetLastError=true)
@@ -889,11 +1011,19 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         {
             // null check
             type.getClass();
+            if (type == PosixFileAttributeView.class || type == FileOwnerAttributeView.class)
+            {
+                return NetUnixFileAttributes.isSupported();
+            }
             return type == BasicFileAttributeView.class || type == DosFileAttributeView.class;
         }
 
         public boolean supportsFileAttributeView(String name)
         {
+            if (name.equals("posix") || name.equals("unix") || name.equals("owner"))
+            {
+                return NetUnixFileAttributes.isSupported();
+            }
             return name.equals("basic") || name.equals("dos");
         }
 
@@ -957,7 +1087,9 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
             if (false) throw new cli.System.Security.SecurityException();
             if (false) throw new cli.System.UnauthorizedAccessException();
             // note that File.GetAttributes() works for directories as well
-            int attr = File.GetAttributes(npath).Value;
+            int attr = NetAttributeCache.isEnabled()
+                ? DosFileAttributesViewImpl.readAttributesImpl(npath).attributes()
+                : File.GetAttributes(npath).Value;
             for (AccessMode m : modes)
             {
                 switch (m)
@@ -1065,6 +1197,10 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
             {
                 throw new IOException(x.getMessage());
             }
+            finally
+            {
+                NetAttributeCache.invalidate(path);
+            }
         }
     }
 
@@ -1094,11 +1230,20 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
 
         private static class DosFileAttributesImpl implements DosFileAttributes
         {
-            private final FileInfo info;
+            private final FileSystemInfo info;
+            // true if info describes a symbolic link itself rather than its target
+            // (as is the case for FileSystemInfo objects returned by directory enumeration)
+            private final boolean nofollow;
 
-            DosFileAttributesImpl(FileInfo info)
+            DosFileAttributesImpl(FileSystemInfo info)
+            {
+                this(info, false);
+            }
+
+            DosFileAttributesImpl(FileSystemInfo info, boolean nofollow)
             {
                 this.info = info;
+                this.nofollow = nofollow;
             }
 
             int attributes()
@@ -1118,7 +1263,7 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
 
             public boolean isDirectory()
             {
-                return (info.get_Attributes().Value & cli.System.IO.FileAttributes.Directory) != 0;
+                return (info.get_Attributes().Value & cli.System.IO.FileAttributes.Directory) != 0 && !isSymbolicLink();
             }
 
             public boolean isOther()
@@ -1128,12 +1273,13 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
 
             public boolean isRegularFile()
             {
-                return (info.get_Attributes().Value & cli.System.IO.FileAttributes.Directory) == 0;
+                return (info.get_Attributes().Value & cli.System.IO.FileAttributes.Directory) == 0 && !isSymbolicLink();
             }
 
             public boolean isSymbolicLink()
             {
-                return false;
+                // on Windows a reparse point is not necessarily a symbolic link
+                return nofollow && !WINDOWS && (info.get_Attributes().Value & cli.System.IO.FileAttributes.ReparsePoint) != 0;
             }
 
             public FileTime lastAccessTime()
@@ -1148,7 +1294,7 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
 
             public long size()
             {
-                return info.get_Exists() ? info.get_Length() : 0;
+                return info instanceof FileInfo && info.get_Exists() ? ((FileInfo)info).get_Length() : 0;
             }
 
             public boolean isArchive()
@@ -1179,6 +1325,19 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
             {
                 sm.checkRead(path);
             }
+            boolean cache = NetAttributeCache.isEnabled();
+            if (cache)
+            {
+                NetAttributeCache.Entry entry = NetAttributeCache.get(path);
+                if (entry != null)
+                {
+                    if (entry.attrs == null)
+                    {
+                        throw new NoSuchFileException(path);
+                    }
+                    return (DosFileAttributesImpl)entry.attrs;
+                }
+            }
             try
             {
                 if (false) throw new cli.System.ArgumentException();
@@ -1190,9 +1349,19 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
                 // and this is the only efficient way to do that.
                 if (info.get_Attributes().Value == -1)
                 {
+                    if (cache)
+                    {
+                        NetAttributeCache.put(path, null);
+                    }
                     throw new NoSuchFileException(path);
                 }
-                return new DosFileAttributesImpl(info);
+                DosFileAttributesImpl attrs = new DosFileAttributesImpl(info);
+                if (cache)
+                {
+                    // FileInfo has read all its data by now, so this is a snapshot
+                    NetAttributeCache.put(path, attrs);
+                }
+                return attrs;
             }
             catch (cli.System.IO.FileNotFoundException _)
             {
@@ -1254,6 +1423,10 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
             {
                 throw new IOException(x.getMessage());
             }
+            finally
+            {
+                NetAttributeCache.invalidate(path);
+            }
         }
 
         public Map<String,Object> readAttributes(String[] attributes) throws IOException
@@ -1336,6 +1509,14 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         {
             return (V)new DosFileAttributesViewImpl(npath);
         }
+        else if (type == PosixFileAttributeView.class && NetUnixFileAttributes.isSupported())
+        {
+            return (V)new NetUnixFileAttributeViews.Posix(npath, Util.followLinks(options), new BasicFileAttributesViewImpl(npath));
+        }
+        else if (type == FileOwnerAttributeView.class && NetUnixFileAttributes.isSupported())
+        {
+            return (V)new FileOwnerAttributeViewImpl(new NetUnixFileAttributeViews.Posix(npath, Util.followLinks(options), new BasicFileAttributesViewImpl(npath)));
+        }
         else
         {
             // null check
@@ -1350,6 +1531,10 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         // null check
         type.getClass();
         validateLinkOption(options);
+        if (type == PosixFileAttributes.class && NetUnixFileAttributes.isSupported())
+        {
+            return (A)new NetUnixFileAttributeViews.Posix(npath, Util.followLinks(options), null).readAttributes();
+        }
         if (type != BasicFileAttributes.class && type != DosFileAttributes.class)
         {
             throw new UnsupportedOperationException();
@@ -1373,6 +1558,22 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         {
             return new DosFileAttributesViewImpl(NetPath.from(file).path);
         }
+        else if (NetUnixFileAttributes.isSupported())
+        {
+            String npath = NetPath.from(file).path;
+            boolean followLinks = Util.followLinks(options);
+            switch (name)
+            {
+                case "posix":
+                    return new NetUnixFileAttributeViews.Posix(npath, followLinks, new BasicFileAttributesViewImpl(npath));
+                case "unix":
+                    return new NetUnixFileAttributeViews.Unix(npath, followLinks, new BasicFileAttributesViewImpl(npath));
+                case "owner":
+                    return new FileOwnerAttributeViewImpl(new NetUnixFileAttributeViews.Posix(npath, followLinks, new BasicFileAttributesViewImpl(npath)));
+                default:
+                    return null;
+            }
+        }
         else
         {
             return null;
@@ -1454,6 +1655,18 @@ final class NetFileSystemProvider extends AbstractFileSystemProvider
         {
             throw new AccessDeniedException(path);
         }
+        finally
+        {
+            NetAttributeCache.invalidate(path);
+        }
+    }
+
+    // true for attributes read through System.IO that describe a reparse point (a symbolic link,
+    // junction or mount point on Windows, a symbolic link elsewhere), even if isSymbolicLink() is false
+    static boolean isReparsePoint(BasicFileAttributes attrs)
+    {
+        return attrs instanceof DosFileAttributesViewImpl.DosFileAttributesImpl
+            && (((DosFileAttributesViewImpl.DosFileAttributesImpl)attrs).attributes() & cli.System.IO.FileAttributes.ReparsePoint) != 0;
     }
 
     static FileTime toFileTime(cli.System.DateTime dateTime)
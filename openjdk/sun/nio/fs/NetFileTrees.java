@@ -0,0 +1,630 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package sun.nio.fs;
+
+import cli.System.IntPtr;
+import cli.System.Runtime.InteropServices.DllImportAttribute;
+import cli.System.Runtime.InteropServices.Marshal;
+import ikvm.nio.FileTreeException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import static ikvm.internal.Util.LINUX_MACHINE;
+import static ikvm.internal.Util.MACOSX;
+import static ikvm.internal.Util.WINDOWS;
+
+/*
+ * Parallel copy and delete of directory trees, see ikvm.nio.FileTrees.
+ *
+ * Every directory is a fork/join task that enumerates its entries (the entries carry
+ * the attributes captured during enumeration, so no extra stat is needed to tell files
+ * from directories), forks a task per subdirectory and a task per batch of files.
+ * Symbolic links are never followed. On Windows isSymbolicLink() is false for junctions and
+ * directory links, so every reparse point is treated as a link: it is deleted itself and is
+ * never descended into. Failures are collected per path and the
+ * operation carries on with the rest of the tree; they are reported at the end in
+ * path order, so the outcome doesn't depend on scheduling.
+ */
+public final class NetFileTrees
+{
+    private static final int BATCH_SIZE = 32;
+
+    private static final int O_RDONLY = 0;
+    private static final int O_WRONLY = 01;
+    private static final int O_CREAT = 0100;
+    private static final int O_EXCL = 0200;
+    private static final int O_CLOEXEC = 02000000;
+    private static final int O_NOFOLLOW = LINUX_MACHINE == 40 || LINUX_MACHINE == 183 ? 0100000 : 0400000;
+    private static final int FICLONE = 0x40049409;
+    private static final int COPY_CHUNK = 1 << 30;
+
+    private static final int EINTR = 4;
+    private static final int EXDEV = 18;
+    private static final int EINVAL = 22;
+    private static final int ENOSYS = 38;
+    private static final int EOPNOTSUPP = 95;
+
+    // cleared when libc turns out not to have copy_file_range
+    private static volatile boolean nativeCopy = !WINDOWS && !MACOSX;
+
+    private NetFileTrees() { }
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int open(String pathname, int flags, int mode);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int close(int fd);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int ioctl(int fd, IntPtr request, IntPtr arg);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr copy_file_range(int fd_in, IntPtr off_in, int fd_out, IntPtr off_out, IntPtr len, int flags);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr readlink(String pathname, byte[] buf, IntPtr bufsiz);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int symlink(String target, String linkpath);
+
+    private static final class Context
+    {
+        final boolean replaceExisting;
+        final boolean copyAttributes;
+        final ConcurrentSkipListMap<Path, IOException> failures = new ConcurrentSkipListMap<>();
+
+        Context(boolean replaceExisting, boolean copyAttributes)
+        {
+            this.replaceExisting = replaceExisting;
+            this.copyAttributes = copyAttributes;
+        }
+
+        void fail(Path path, IOException x)
+        {
+            failures.putIfAbsent(path, x);
+        }
+    }
+
+    // attributes of the link itself, for the root of an operation
+    private static BasicFileAttributes readAttributesNoFollow(NetPath path) throws IOException
+    {
+        if (NetUnixFileAttributes.isSupported())
+        {
+            return NetUnixFileAttributes.get(path.path, false);
+        }
+        return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    // a directory we may descend into, as opposed to a link to one
+    private static boolean isDirectory(BasicFileAttributes attrs)
+    {
+        return attrs.isDirectory() && !NetFileSystemProvider.isReparsePoint(attrs);
+    }
+
+    private static IOException linkNotCopied(Path path)
+    {
+        return new FileSystemException(path.toString(), null, "Directory junction or link can't be copied");
+    }
+
+    private static BasicFileAttributes cachedAttributes(Path entry) throws IOException
+    {
+        BasicFileAttributes attrs = entry instanceof BasicFileAttributesHolder ? ((BasicFileAttributesHolder)entry).get() : null;
+        return attrs != null ? attrs : readAttributesNoFollow(NetPath.from(entry));
+    }
+
+    private static void run(int parallelism, RecursiveTask<Boolean> task, Context ctx, String message) throws IOException
+    {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try
+        {
+            pool.invoke(task);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        if (!ctx.failures.isEmpty())
+        {
+            throw new FileTreeException(message, ctx.failures);
+        }
+    }
+
+    private static int checkParallelism(int parallelism)
+    {
+        if (parallelism <= 0)
+        {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        return parallelism;
+    }
+
+    public static void deleteTree(Path dir, int parallelism) throws IOException
+    {
+        checkParallelism(parallelism);
+        NetPath root = NetPath.from(dir);
+        BasicFileAttributes attrs = readAttributesNoFollow(root);
+        Context ctx = new Context(false, false);
+        RecursiveTask<Boolean> task;
+        if (isDirectory(attrs))
+        {
+            task = new DeleteDirectory(ctx, root);
+        }
+        else
+        {
+            List<Path> list = new ArrayList<>(1);
+            list.add(root);
+            task = new DeleteFiles(ctx, list);
+        }
+        run(parallelism, task, ctx, "Failed to delete " + dir);
+    }
+
+    private static final class DeleteDirectory extends RecursiveTask<Boolean>
+    {
+        private final Context ctx;
+        private final Path dir;
+
+        DeleteDirectory(Context ctx, Path dir)
+        {
+            this.ctx = ctx;
+            this.dir = dir;
+        }
+
+        protected Boolean compute()
+        {
+            List<RecursiveTask<Boolean>> tasks = new ArrayList<>();
+            List<Path> files = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir))
+            {
+                for (Path entry : stream)
+                {
+                    BasicFileAttributes attrs = cachedAttributes(entry);
+                    if (isDirectory(attrs))
+                    {
+                        tasks.add(new DeleteDirectory(ctx, entry));
+                    }
+                    else
+                    {
+                        files.add(entry);
+                        if (files.size() == BATCH_SIZE)
+                        {
+                            tasks.add(new DeleteFiles(ctx, files));
+                            files = new ArrayList<>();
+                        }
+                    }
+                }
+            }
+            catch (IOException x)
+            {
+                ctx.fail(dir, x);
+                return false;
+            }
+            catch (DirectoryIteratorException x)
+            {
+                ctx.fail(dir, x.getCause());
+                return false;
+            }
+            if (!files.isEmpty())
+            {
+                tasks.add(new DeleteFiles(ctx, files));
+            }
+            boolean ok = true;
+            for (ForkJoinTask<Boolean> task : invokeAll(tasks))
+            {
+                ok &= task.join();
+            }
+            if (!ok)
+            {
+                // the directory can't be empty, so don't report a second error for it
+                return false;
+            }
+            try
+            {
+                Files.delete(dir);
+                return true;
+            }
+            catch (IOException x)
+            {
+                ctx.fail(dir, x);
+                return false;
+            }
+        }
+    }
+
+    private static final class DeleteFiles extends RecursiveTask<Boolean>
+    {
+        private final Context ctx;
+        private final List<Path> files;
+
+        DeleteFiles(Context ctx, List<Path> files)
+        {
+            this.ctx = ctx;
+            this.files = files;
+        }
+
+        protected Boolean compute()
+        {
+            boolean ok = true;
+            for (Path file : files)
+            {
+                try
+                {
+                    Files.delete(file);
+                }
+                catch (IOException x)
+                {
+                    ctx.fail(file, x);
+                    ok = false;
+                }
+            }
+            return ok;
+        }
+    }
+
+    public static void copyTree(Path source, Path target, int parallelism, boolean replaceExisting, boolean copyAttributes) throws IOException
+    {
+        checkParallelism(parallelism);
+        NetPath src = NetPath.from(source);
+        NetPath dst = NetPath.from(target);
+        BasicFileAttributes attrs = readAttributesNoFollow(src);
+        Context ctx = new Context(replaceExisting, copyAttributes);
+        RecursiveTask<Boolean> task;
+        if (attrs.isDirectory() && !isDirectory(attrs))
+        {
+            throw linkNotCopied(source);
+        }
+        if (attrs.isDirectory())
+        {
+            task = new CopyDirectory(ctx, src, dst, attrs);
+        }
+        else
+        {
+            List<Path[]> list = new ArrayList<>(1);
+            list.add(new Path[] { src, dst });
+            List<BasicFileAttributes> attrList = new ArrayList<>(1);
+            attrList.add(attrs);
+            task = new CopyFiles(ctx, list, attrList);
+        }
+        run(parallelism, task, ctx, "Failed to copy " + source + " to " + target);
+    }
+
+    private static final class CopyDirectory extends RecursiveTask<Boolean>
+    {
+        private final Context ctx;
+        private final Path source;
+        private final Path target;
+        private final BasicFileAttributes attrs;
+
+        CopyDirectory(Context ctx, Path source, Path target, BasicFileAttributes attrs)
+        {
+            this.ctx = ctx;
+            this.source = source;
+            this.target = target;
+            this.attrs = attrs;
+        }
+
+        protected Boolean compute()
+        {
+            try
+            {
+                createDirectory(ctx, target);
+            }
+            catch (IOException x)
+            {
+                ctx.fail(target, x);
+                return false;
+            }
+            List<RecursiveTask<Boolean>> tasks = new ArrayList<>();
+            List<Path[]> files = new ArrayList<>();
+            List<BasicFileAttributes> fileAttrs = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(source))
+            {
+                for (Path entry : stream)
+                {
+                    BasicFileAttributes entryAttrs = cachedAttributes(entry);
+                    Path entryTarget = target.resolve(entry.getFileName().toString());
+                    if (entryAttrs.isDirectory() && !isDirectory(entryAttrs))
+                    {
+                        // (file reparse points, e.g. cloud placeholders, are copied like files)
+                        ctx.fail(entry, linkNotCopied(entry));
+                    }
+                    else if (entryAttrs.isDirectory())
+                    {
+                        tasks.add(new CopyDirectory(ctx, entry, entryTarget, entryAttrs));
+                    }
+                    else
+                    {
+                        files.add(new Path[] { entry, entryTarget });
+                        fileAttrs.add(entryAttrs);
+                        if (files.size() == BATCH_SIZE)
+                        {
+                            tasks.add(new CopyFiles(ctx, files, fileAttrs));
+                            files = new ArrayList<>();
+                            fileAttrs = new ArrayList<>();
+                        }
+                    }
+                }
+            }
+            catch (IOException x)
+            {
+                ctx.fail(source, x);
+                return false;
+            }
+            catch (DirectoryIteratorException x)
+            {
+                ctx.fail(source, x.getCause());
+                return false;
+            }
+            if (!files.isEmpty())
+            {
+                tasks.add(new CopyFiles(ctx, files, fileAttrs));
+            }
+            boolean ok = true;
+            for (ForkJoinTask<Boolean> task : invokeAll(tasks))
+            {
+                ok &= task.join();
+            }
+            if (ctx.copyAttributes)
+            {
+                // after the contents, because copying them changes the directory's timestamps
+                try
+                {
+                    copyAttributes(source, target, attrs);
+                }
+                catch (IOException x)
+                {
+                    ctx.fail(target, x);
+                    ok = false;
+                }
+            }
+            return ok;
+        }
+    }
+
+    private static final class CopyFiles extends RecursiveTask<Boolean>
+    {
+        private final Context ctx;
+        private final List<Path[]> files;
+        private final List<BasicFileAttributes> attrs;
+
+        CopyFiles(Context ctx, List<Path[]> files, List<BasicFileAttributes> attrs)
+        {
+            this.ctx = ctx;
+            this.files = files;
+            this.attrs = attrs;
+        }
+
+        protected Boolean compute()
+        {
+            boolean ok = true;
+            for (int i = 0; i < files.size(); i++)
+            {
+                Path[] pair = files.get(i);
+                try
+                {
+                    copyFile(ctx, NetPath.from(pair[0]), NetPath.from(pair[1]), attrs.get(i));
+                }
+                catch (IOException x)
+                {
+                    ctx.fail(pair[0], x);
+                    ok = false;
+                }
+            }
+            return ok;
+        }
+    }
+
+    private static void createDirectory(Context ctx, Path dir) throws IOException
+    {
+        try
+        {
+            Files.createDirectory(dir);
+        }
+        catch (FileAlreadyExistsException x)
+        {
+            if (!ctx.replaceExisting)
+            {
+                throw x;
+            }
+            if (!Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS))
+            {
+                Files.delete(dir);
+                Files.createDirectory(dir);
+            }
+            // else merge into the existing directory
+        }
+    }
+
+    private static void copyAttributes(Path source, Path target, BasicFileAttributes attrs) throws IOException
+    {
+        if (NetUnixFileAttributes.isSupported())
+        {
+            NetUnixFileAttributes.setMode(((NetPath)target).path, NetUnixFileAttributes.get(((NetPath)source).path, false).mode() & 07777);
+        }
+        Files.getFileAttributeView(target, BasicFileAttributeView.class)
+            .setTimes(attrs.lastModifiedTime(), attrs.lastAccessTime(), attrs.creationTime());
+    }
+
+    private static void copyFile(Context ctx, NetPath source, NetPath target, BasicFileAttributes attrs) throws IOException
+    {
+        if (attrs.isSymbolicLink())
+        {
+            copyLink(ctx, source, target);
+            return;
+        }
+        boolean tried = attrs.isRegularFile() && nativeCopy;
+        if (!tried || !copyFileNative(ctx, source, target))
+        {
+            if (tried)
+            {
+                // copyFileNative created the (still empty) target exclusively
+                Files.deleteIfExists(target);
+            }
+            if (ctx.copyAttributes)
+            {
+                if (ctx.replaceExisting)
+                {
+                    Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                else
+                {
+                    Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+                return;
+            }
+            if (ctx.replaceExisting)
+            {
+                Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            else
+            {
+                Files.copy(source, target);
+            }
+            return;
+        }
+        NetAttributeCache.invalidate(target.path);
+        if (ctx.copyAttributes)
+        {
+            copyAttributes(source, target, attrs);
+        }
+    }
+
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    private static void copyLink(Context ctx, NetPath source, NetPath target) throws IOException
+    {
+        SecurityManager sm = System.getSecurityManager();
+        if (sm != null)
+        {
+            sm.checkRead(source.path);
+            sm.checkWrite(target.path);
+        }
+        byte[] buf = new byte[4096];
+        int len = (int)readlink(source.path, buf, IntPtr.op_Explicit((long)buf.length)).ToInt64();
+        if (len < 0)
+        {
+            throw NetUnixFileAttributes.translate(Marshal.GetLastWin32Error(), source.path);
+        }
+        String linkTarget = new String(buf, 0, len, StandardCharsets.UTF_8);
+        if (ctx.replaceExisting)
+        {
+            Files.deleteIfExists(target);
+        }
+        if (symlink(linkTarget, target.path) != 0)
+        {
+            throw NetUnixFileAttributes.translate(Marshal.GetLastWin32Error(), target.path);
+        }
+        NetAttributeCache.invalidate(target.path);
+    }
+
+    // copies with a reflink (FICLONE) or copy_file_range, so that the data doesn't have to
+    // pass through user space, returns false if neither is supported for these files
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    private static boolean copyFileNative(Context ctx, NetPath source, NetPath target) throws IOException
+    {
+        SecurityManager sm = System.getSecurityManager();
+        if (sm != null)
+        {
+            sm.checkRead(source.path);
+            sm.checkWrite(target.path);
+        }
+        if (ctx.replaceExisting)
+        {
+            // like UnixCopyFile, replace whatever is at the target (a link itself, not the
+            // file it points to) instead of writing into it
+            Files.deleteIfExists(target);
+        }
+        int in = open(source.path, O_RDONLY | O_CLOEXEC, 0);
+        if (in < 0)
+        {
+            throw NetUnixFileAttributes.translate(Marshal.GetLastWin32Error(), source.path);
+        }
+        try
+        {
+            int out = open(target.path, O_WRONLY | O_CREAT | O_EXCL | O_NOFOLLOW | O_CLOEXEC, 0666);
+            if (out < 0)
+            {
+                throw NetUnixFileAttributes.translate(Marshal.GetLastWin32Error(), target.path);
+            }
+            try
+            {
+                if (ioctl(out, IntPtr.op_Explicit((long)FICLONE), IntPtr.op_Explicit((long)in)) == 0)
+                {
+                    return true;
+                }
+                long copied = 0;
+                for (;;)
+                {
+                    long n;
+                    try
+                    {
+                        if (false) throw new cli.System.EntryPointNotFoundException();
+                        n = copy_file_range(in, IntPtr.Zero, out, IntPtr.Zero, IntPtr.op_Explicit((long)COPY_CHUNK), 0).ToInt64();
+                    }
+                    catch (cli.System.EntryPointNotFoundException _)
+                    {
+                        // glibc older than 2.27
+                        nativeCopy = false;
+                        return false;
+                    }
+                    if (n == 0)
+                    {
+                        return true;
+                    }
+                    if (n < 0)
+                    {
+                        int errno = Marshal.GetLastWin32Error();
+                        if (errno == EINTR)
+                        {
+                            continue;
+                        }
+                        if (copied == 0 && (errno == ENOSYS || errno == EXDEV || errno == EINVAL || errno == EOPNOTSUPP))
+                        {
+                            // not supported by the kernel or for this pair of file systems, the
+                            // caller deletes the empty target and falls back to Files.copy
+                            if (errno == ENOSYS)
+                            {
+                                nativeCopy = false;
+                            }
+                            return false;
+                        }
+                        throw NetUnixFileAttributes.translate(errno, target.path);
+                    }
+                    copied += n;
+                }
+            }
+            finally
+            {
+                close(out);
+            }
+        }
+        finally
+        {
+            close(in);
+        }
+    }
+}
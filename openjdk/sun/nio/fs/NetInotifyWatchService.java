@@ -0,0 +1,707 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package sun.nio.fs;
+
+import cli.System.IntPtr;
+import cli.System.BitConverter;
+import cli.System.IO.Directory;
+import cli.System.IO.File;
+import cli.System.IO.FileAttributes;
+import cli.System.Runtime.InteropServices.DllImportAttribute;
+import cli.System.Runtime.InteropServices.Marshal;
+import com.sun.nio.file.ExtendedWatchEventModifier;
+import com.sun.nio.file.SensitivityWatchEventModifier;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Set;
+import static ikvm.internal.Util.MACOSX;
+import static ikvm.internal.Util.WINDOWS;
+
+/*
+ * WatchService for Linux that uses a single inotify instance per service and a
+ * dedicated poller thread (modelled after the OpenJDK LinuxWatchService).
+ *
+ * Repeated ENTRY_MODIFY events for the same file are merged by AbstractWatchKey
+ * until the key's events are polled. For FILE_TREE registrations every directory
+ * below the registered one gets its own inotify watch (on the same inotify fd)
+ * and newly created or moved in directories are added as they appear; events are
+ * reported to the registered key with a context relative to the registered
+ * directory.
+ */
+final class NetInotifyWatchService extends AbstractWatchService
+{
+    private static final int IN_MODIFY      = 0x00000002;
+    private static final int IN_ATTRIB      = 0x00000004;
+    private static final int IN_MOVED_FROM  = 0x00000040;
+    private static final int IN_MOVED_TO    = 0x00000080;
+    private static final int IN_CREATE      = 0x00000100;
+    private static final int IN_DELETE      = 0x00000200;
+    private static final int IN_Q_OVERFLOW  = 0x00004000;
+    private static final int IN_IGNORED     = 0x00008000;
+    private static final int IN_ONLYDIR     = 0x01000000;
+    private static final int IN_DONT_FOLLOW = 0x02000000;
+    private static final int IN_MASK_ADD    = 0x20000000;
+    private static final int IN_ISDIR       = 0x40000000;
+
+    private static final int IN_NONBLOCK = 04000;
+    private static final int IN_CLOEXEC = 02000000;
+
+    private static final short POLLIN = 1;
+
+    private static final int EINTR = 4;
+    private static final int EAGAIN = 11;
+    private static final int EACCES = 13;
+    private static final int ENOENT = 2;
+    private static final int ENOTDIR = 20;
+    private static final int EINVAL = 22;
+    private static final int ENOSPC = 28;
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+    private static final int MAX_BUFFER_SIZE = 1024 * 1024;
+
+    private final Poller poller;
+
+    private NetInotifyWatchService(NetFileSystem fs, int ifd, int efd)
+    {
+        poller = new Poller(fs, this, ifd, efd);
+        poller.start();
+    }
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int inotify_init1(int flags);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int inotify_add_watch(int fd, String pathname, int mask);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int inotify_rm_watch(int fd, int wd);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int eventfd(int initval, int flags);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int poll(byte[] fds, IntPtr nfds, int timeout);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr read(int fd, byte[] buf, IntPtr count);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native IntPtr write(int fd, byte[] buf, IntPtr count);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int close(int fd);
+
+    // returns null if inotify is not available, so that the caller can fall back to FileSystemWatcher
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    static WatchService create(NetFileSystem fs) throws IOException
+    {
+        if (WINDOWS || MACOSX)
+        {
+            return null;
+        }
+        int ifd;
+        try
+        {
+            if (false) throw new cli.System.DllNotFoundException();
+            if (false) throw new cli.System.EntryPointNotFoundException();
+            ifd = inotify_init1(IN_NONBLOCK | IN_CLOEXEC);
+        }
+        catch (cli.System.DllNotFoundException | cli.System.EntryPointNotFoundException _)
+        {
+            return null;
+        }
+        if (ifd < 0)
+        {
+            int errno = Marshal.GetLastWin32Error();
+            if (errno == ENOSPC || errno == 24 /* EMFILE */)
+            {
+                throw new IOException("User limit of inotify instances reached or too many open files");
+            }
+            return null;
+        }
+        int efd = eventfd(0, IN_NONBLOCK | IN_CLOEXEC);
+        if (efd < 0)
+        {
+            int errno = Marshal.GetLastWin32Error();
+            close(ifd);
+            throw new IOException("eventfd failed (errno " + errno + ")");
+        }
+        return new NetInotifyWatchService(fs, ifd, efd);
+    }
+
+    @Override
+    WatchKey register(Path dir, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) throws IOException
+    {
+        // validation and security checks have been done by NetPath.register
+        return poller.register(dir, events, modifiers);
+    }
+
+    @Override
+    void implClose() throws IOException
+    {
+        poller.close();
+    }
+
+    private static final class NetInotifyKey extends AbstractWatchKey
+    {
+        // the following are only accessed by the poller thread
+        private Set<? extends WatchEvent.Kind<?>> events;
+        private boolean subtree;
+        private final ArrayList<Integer> wds = new ArrayList<>();
+        private volatile boolean valid = true;
+
+        NetInotifyKey(NetPath dir, NetInotifyWatchService watcher, Set<? extends WatchEvent.Kind<?>> events, boolean subtree)
+        {
+            super(dir, watcher);
+            this.events = events;
+            this.subtree = subtree;
+        }
+
+        public boolean isValid()
+        {
+            return valid;
+        }
+
+        public void cancel()
+        {
+            if (isValid())
+            {
+                ((NetInotifyWatchService)watcher()).poller.cancel(this);
+            }
+        }
+    }
+
+    // an inotify watch descriptor can serve several keys, e.g. a directory that is
+    // registered itself and is also part of a registered tree
+    private static final class Watch
+    {
+        final NetInotifyKey key;
+        // path of the directory relative to the key's directory, null for the key's directory
+        // (updated when the directory is renamed within the tree)
+        String rel;
+
+        Watch(NetInotifyKey key, String rel)
+        {
+            this.key = key;
+            this.rel = rel;
+        }
+    }
+
+    private static final class Poller extends AbstractPoller
+    {
+        private final NetFileSystem fs;
+        private final NetInotifyWatchService watcher;
+        private final int ifd;
+        private final int efd;
+        private final HashMap<Integer, ArrayList<Watch>> watches = new HashMap<>();
+        private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+        Poller(NetFileSystem fs, NetInotifyWatchService watcher, int ifd, int efd)
+        {
+            this.fs = fs;
+            this.watcher = watcher;
+            this.ifd = ifd;
+            this.efd = efd;
+        }
+
+        @Override
+        @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+        void wakeup() throws IOException
+        {
+            byte[] one = BitConverter.GetBytes(1L);
+            if (write(efd, one, IntPtr.op_Explicit(8L)).ToInt64() < 0 && Marshal.GetLastWin32Error() != EAGAIN)
+            {
+                throw new IOException("eventfd write failed (errno " + Marshal.GetLastWin32Error() + ")");
+            }
+        }
+
+        private static int toMask(Set<? extends WatchEvent.Kind<?>> events, boolean subtree)
+        {
+            int mask = 0;
+            for (WatchEvent.Kind<?> event : events)
+            {
+                if (event == StandardWatchEventKinds.ENTRY_CREATE)
+                {
+                    mask |= IN_CREATE | IN_MOVED_TO;
+                }
+                else if (event == StandardWatchEventKinds.ENTRY_DELETE)
+                {
+                    mask |= IN_DELETE | IN_MOVED_FROM;
+                }
+                else if (event == StandardWatchEventKinds.ENTRY_MODIFY)
+                {
+                    mask |= IN_MODIFY | IN_ATTRIB;
+                }
+            }
+            if (subtree)
+            {
+                // we need to see new directories to add watches for them and directories that
+                // are moved away or renamed to remove their watches (or they'd keep reporting
+                // events under the old path), signalling is filtered by the key's events
+                mask |= IN_CREATE | IN_MOVED_TO | IN_DELETE | IN_MOVED_FROM;
+            }
+            return mask;
+        }
+
+        private void attach(int wd, NetInotifyKey key, String rel)
+        {
+            ArrayList<Watch> list = watches.get(wd);
+            if (list == null)
+            {
+                list = new ArrayList<>(1);
+                watches.put(wd, list);
+            }
+            for (Watch w : list)
+            {
+                if (w.key == key)
+                {
+                    // a directory renamed within the tree keeps its watch descriptor
+                    w.rel = rel;
+                    return;
+                }
+            }
+            list.add(new Watch(key, rel));
+            key.wds.add(wd);
+        }
+
+        // symbolic links below a registered tree are not followed
+        @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+        private boolean addSubdirectoryWatch(NetInotifyKey key, String path, String rel, int mask)
+        {
+            int wd = inotify_add_watch(ifd, path, mask | IN_ONLYDIR | IN_DONT_FOLLOW | IN_MASK_ADD);
+            if (wd < 0)
+            {
+                return false;
+            }
+            attach(wd, key, rel);
+            return true;
+        }
+
+        // adds watches for all directories below path, signalling ENTRY_CREATE for
+        // their contents if the tree was created after the key was registered
+        private void addTree(NetInotifyKey key, String path, String rel, boolean signalCreate)
+        {
+            int mask = toMask(key.events, true);
+            ArrayList<String[]> stack = new ArrayList<>();
+            stack.add(new String[] { path, rel });
+            while (!stack.isEmpty())
+            {
+                String[] dir = stack.remove(stack.size() - 1);
+                if (dir[1] != null && !addSubdirectoryWatch(key, dir[0], dir[1], mask))
+                {
+                    continue;
+                }
+                try
+                {
+                    if (false) throw new cli.System.IO.IOException();
+                    if (false) throw new cli.System.UnauthorizedAccessException();
+                    if (false) throw new cli.System.Security.SecurityException();
+                    for (String entry : Directory.GetFileSystemEntries(dir[0]))
+                    {
+                        String name = cli.System.IO.Path.GetFileName(entry);
+                        String entryRel = dir[1] == null ? name : dir[1] + '/' + name;
+                        if (signalCreate && key.events.contains(StandardWatchEventKinds.ENTRY_CREATE))
+                        {
+                            // these may have been created before the watch was in place
+                            key.signalEvent(StandardWatchEventKinds.ENTRY_CREATE, new NetPath(fs, entryRel));
+                        }
+                        if (isPlainDirectory(entry))
+                        {
+                            stack.add(new String[] { entry, entryRel });
+                        }
+                    }
+                }
+                catch (cli.System.IO.IOException
+                     | cli.System.UnauthorizedAccessException
+                     | cli.System.Security.SecurityException _)
+                {
+                    // the directory disappeared or can't be read
+                }
+            }
+        }
+
+        private static boolean isPlainDirectory(String path)
+        {
+            try
+            {
+                if (false) throw new cli.System.IO.IOException();
+                if (false) throw new cli.System.UnauthorizedAccessException();
+                int attr = File.GetAttributes(path).Value;
+                return (attr & FileAttributes.Directory) != 0 && (attr & FileAttributes.ReparsePoint) == 0;
+            }
+            catch (cli.System.IO.IOException | cli.System.UnauthorizedAccessException _)
+            {
+                return false;
+            }
+        }
+
+        // removes the watches for a directory (and everything below it) that was
+        // deleted or moved out of a registered tree
+        @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+        private void removeTree(NetInotifyKey key, String rel)
+        {
+            for (int i = key.wds.size() - 1; i >= 0; i--)
+            {
+                int wd = key.wds.get(i);
+                ArrayList<Watch> list = watches.get(wd);
+                for (int j = 0; list != null && j < list.size(); j++)
+                {
+                    Watch w = list.get(j);
+                    if (w.key == key && w.rel != null && (w.rel.equals(rel) || w.rel.startsWith(rel + '/')))
+                    {
+                        list.remove(j);
+                        key.wds.remove(i);
+                        if (list.isEmpty())
+                        {
+                            watches.remove(wd);
+                            inotify_rm_watch(ifd, wd);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+        private void removeWatches(NetInotifyKey key, boolean includingRoot)
+        {
+            for (int i = key.wds.size() - 1; i >= 0; i--)
+            {
+                int wd = key.wds.get(i);
+                ArrayList<Watch> list = watches.get(wd);
+                if (list == null)
+                {
+                    key.wds.remove(i);
+                    continue;
+                }
+                for (int j = 0; j < list.size(); j++)
+                {
+                    Watch w = list.get(j);
+                    if (w.key == key)
+                    {
+                        if (w.rel == null && !includingRoot)
+                        {
+                            break;
+                        }
+                        list.remove(j);
+                        key.wds.remove(i);
+                        if (list.isEmpty())
+                        {
+                            watches.remove(wd);
+                            inotify_rm_watch(ifd, wd);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        @Override
+        Object implRegister(Path obj, Set<? extends WatchEvent.Kind<?>> events, WatchEvent.Modifier... modifiers)
+        {
+            NetPath dir = (NetPath)obj;
+            boolean subtree = false;
+            for (WatchEvent.Modifier modifier : modifiers)
+            {
+                if (modifier == ExtendedWatchEventModifier.FILE_TREE)
+                {
+                    subtree = true;
+                }
+                else if (!(modifier instanceof SensitivityWatchEventModifier))
+                {
+                    return new UnsupportedOperationException("Modifier not supported");
+                }
+            }
+
+            // the watch descriptor tells us if the directory is already registered with this service
+            int wd = inotify_add_watch(ifd, dir.path, toMask(events, subtree) | IN_ONLYDIR | IN_MASK_ADD);
+            if (wd < 0)
+            {
+                int errno = Marshal.GetLastWin32Error();
+                switch (errno)
+                {
+                    case ENOENT:
+                        return new NoSuchFileException(dir.path);
+                    case ENOTDIR:
+                        return new NotDirectoryException(dir.path);
+                    case EACCES:
+                        return new AccessDeniedException(dir.path);
+                    case ENOSPC:
+                        return new IOException("User limit of inotify watches reached");
+                    default:
+                        return new FileSystemException(dir.path, null, "inotify_add_watch failed (errno " + errno + ")");
+                }
+            }
+            ArrayList<Watch> list = watches.get(wd);
+            if (list != null)
+            {
+                for (Watch w : list)
+                {
+                    if (w.rel == null)
+                    {
+                        NetInotifyKey key = w.key;
+                        key.events = events;
+                        if (subtree && !key.subtree)
+                        {
+                            key.subtree = true;
+                            addTree(key, dir.path, null, false);
+                        }
+                        else if (!subtree && key.subtree)
+                        {
+                            key.subtree = false;
+                            removeWatches(key, false);
+                        }
+                        return key;
+                    }
+                }
+            }
+            NetInotifyKey key = new NetInotifyKey(dir, watcher, events, subtree);
+            attach(wd, key, null);
+            if (subtree)
+            {
+                addTree(key, dir.path, null, false);
+            }
+            return key;
+        }
+
+        @Override
+        void implCancelKey(WatchKey obj)
+        {
+            NetInotifyKey key = (NetInotifyKey)obj;
+            if (key.valid)
+            {
+                removeWatches(key, true);
+                key.valid = false;
+            }
+        }
+
+        @Override
+        @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+        void implCloseAll()
+        {
+            for (ArrayList<Watch> list : watches.values())
+            {
+                for (Watch w : list)
+                {
+                    w.key.valid = false;
+                }
+            }
+            watches.clear();
+            close(ifd);
+            close(efd);
+        }
+
+        @Override
+        @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+        public void run()
+        {
+            byte[] fds = new byte[16];
+            byte[] counter = new byte[8];
+            try
+            {
+                for (;;)
+                {
+                    setPollFd(fds, 0, ifd);
+                    setPollFd(fds, 8, efd);
+                    if (poll(fds, IntPtr.op_Explicit(2L), -1) < 0)
+                    {
+                        int errno = Marshal.GetLastWin32Error();
+                        if (errno == EINTR)
+                        {
+                            continue;
+                        }
+                        throw new IOException("poll failed (errno " + errno + ")");
+                    }
+                    if (BitConverter.ToInt16(fds, 14) != 0)
+                    {
+                        read(efd, counter, IntPtr.op_Explicit(8L));
+                        if (processRequests())
+                        {
+                            // the service was closed
+                            return;
+                        }
+                    }
+                    if (BitConverter.ToInt16(fds, 6) != 0)
+                    {
+                        readEvents();
+                    }
+                }
+            }
+            catch (IOException x)
+            {
+                x.printStackTrace();
+            }
+        }
+
+        private static void setPollFd(byte[] fds, int offset, int fd)
+        {
+            System.arraycopy(BitConverter.GetBytes(fd), 0, fds, offset, 4);
+            System.arraycopy(BitConverter.GetBytes(POLLIN), 0, fds, offset + 4, 2);
+            fds[offset + 6] = 0;
+            fds[offset + 7] = 0;
+        }
+
+        @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+        private void readEvents() throws IOException
+        {
+            for (;;)
+            {
+                int n = (int)read(ifd, buffer, IntPtr.op_Explicit((long)buffer.length)).ToInt64();
+                if (n < 0)
+                {
+                    int errno = Marshal.GetLastWin32Error();
+                    if (errno == EAGAIN)
+                    {
+                        return;
+                    }
+                    if (errno == EINTR)
+                    {
+                        continue;
+                    }
+                    if (errno == EINVAL && buffer.length < MAX_BUFFER_SIZE)
+                    {
+                        // the next event doesn't fit
+                        buffer = new byte[buffer.length * 2];
+                        continue;
+                    }
+                    throw new IOException("inotify read failed (errno " + errno + ")");
+                }
+                int offset = 0;
+                while (offset < n)
+                {
+                    int wd = BitConverter.ToInt32(buffer, offset);
+                    int mask = BitConverter.ToInt32(buffer, offset + 4);
+                    int len = BitConverter.ToInt32(buffer, offset + 12);
+                    String name = null;
+                    if (len > 0)
+                    {
+                        int end = offset + 16;
+                        while (end < offset + 16 + len && buffer[end] != 0)
+                        {
+                            end++;
+                        }
+                        name = new String(buffer, offset + 16, end - (offset + 16), StandardCharsets.UTF_8);
+                    }
+                    offset += 16 + len;
+                    processEvent(wd, mask, name);
+                }
+                if (n < buffer.length / 2)
+                {
+                    // most likely drained, poll will tell us if there is more
+                    return;
+                }
+            }
+        }
+
+        private void processEvent(int wd, int mask, String name)
+        {
+            if ((mask & IN_Q_OVERFLOW) != 0)
+            {
+                // the kernel queue overflowed, read bigger chunks from now on to keep up
+                if (buffer.length < MAX_BUFFER_SIZE)
+                {
+                    buffer = new byte[buffer.length * 2];
+                }
+                for (ArrayList<Watch> list : watches.values())
+                {
+                    for (Watch w : list)
+                    {
+                        if (w.rel == null)
+                        {
+                            w.key.signalEvent(StandardWatchEventKinds.OVERFLOW, null);
+                        }
+                    }
+                }
+                return;
+            }
+            ArrayList<Watch> list = watches.get(wd);
+            if (list == null)
+            {
+                return;
+            }
+            if ((mask & IN_IGNORED) != 0)
+            {
+                // the directory was deleted, moved away or unmounted
+                watches.remove(wd);
+                for (Watch w : list)
+                {
+                    w.key.wds.remove((Integer)wd);
+                    if (w.rel == null)
+                    {
+                        removeWatches(w.key, true);
+                        w.key.valid = false;
+                        w.key.signal();
+                    }
+                }
+                return;
+            }
+            if (name == null)
+            {
+                // event for the watched directory itself
+                return;
+            }
+            WatchEvent.Kind<?> kind;
+            if ((mask & (IN_CREATE | IN_MOVED_TO)) != 0)
+            {
+                kind = StandardWatchEventKinds.ENTRY_CREATE;
+            }
+            else if ((mask & (IN_DELETE | IN_MOVED_FROM)) != 0)
+            {
+                kind = StandardWatchEventKinds.ENTRY_DELETE;
+            }
+            else if ((mask & (IN_MODIFY | IN_ATTRIB)) != 0)
+            {
+                kind = StandardWatchEventKinds.ENTRY_MODIFY;
+            }
+            else
+            {
+                return;
+            }
+            // take a copy, adding a tree may add to this list
+            for (Watch w : list.toArray(new Watch[list.size()]))
+            {
+                NetInotifyKey key = w.key;
+                String rel = w.rel == null ? name : w.rel + '/' + name;
+                String path = ((NetPath)key.watchable()).path + '/' + rel;
+                NetAttributeCache.invalidate(path);
+                if (key.events.contains(kind))
+                {
+                    key.signalEvent(kind, new NetPath(fs, rel));
+                }
+                if (key.subtree && (mask & IN_ISDIR) != 0)
+                {
+                    if (kind == StandardWatchEventKinds.ENTRY_CREATE)
+                    {
+                        addTree(key, path, rel, true);
+                    }
+                    else if (kind == StandardWatchEventKinds.ENTRY_DELETE)
+                    {
+                        removeTree(key, rel);
+                    }
+                }
+            }
+        }
+    }
+}
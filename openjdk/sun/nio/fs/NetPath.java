@@ -30,16 +30,23 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
 import java.util.Iterator;
 import static ikvm.internal.Util.MACOSX;
 import static ikvm.internal.Util.WINDOWS;
 
-final class NetPath extends AbstractPath
+class NetPath extends AbstractPath
 {
     private static final char[] invalid = cli.System.IO.Path.GetInvalidFileNameChars();
+    private static final char separator = cli.System.IO.Path.DirectorySeparatorChar;
     private final NetFileSystem fs;
     final String path;
+    private final int rootLength;
+    // start offsets of the names, computed on first use
+    private volatile int[] offsets;
+    // cached hash code (0 if not computed yet)
+    private int hash;
 
     NetPath(NetFileSystem fs, String path)
     {
@@ -93,6 +100,29 @@ final class NetPath extends AbstractPath
         }
         this.fs = fs;
         this.path = path;
+        this.rootLength = computeRootLength(path);
+    }
+
+    // for paths that are already normalized, e.g. parts of another NetPath
+    private NetPath(NetFileSystem fs, String path, int rootLength)
+    {
+        this.fs = fs;
+        this.path = path;
+        this.rootLength = rootLength;
+    }
+
+    private String resolveNameImpl(String name)
+    {
+        if (path.length() == 0)
+        {
+            return name;
+        }
+        if (path.charAt(path.length() - 1) == separator || (WINDOWS && path.length() == 2 && rootLength == 2))
+        {
+            // path is a root like "/", "C:\" or "C:"
+            return path + name;
+        }
+        return path + separator + name;
     }
 
     public FileSystem getFileSystem()
@@ -108,11 +138,14 @@ final class NetPath extends AbstractPath
 
     public Path getRoot()
     {
-        int len = getRootLength();
-        return len == 0 ? null : new NetPath(fs, path.substring(0, len));
+        if (rootLength == 0)
+        {
+            return null;
+        }
+        return rootLength == path.length() ? this : new NetPath(fs, path.substring(0, rootLength), rootLength);
     }
 
-    private int getRootLength()
+    private static int computeRootLength(String path)
     {
         if (WINDOWS)
         {
@@ -143,109 +176,153 @@ final class NetPath extends AbstractPath
         }
     }
 
+    private int[] offsets()
+    {
+        int[] offs = offsets;
+        if (offs == null)
+        {
+            int len = path.length();
+            if (len == rootLength)
+            {
+                // the empty path has one (empty) name, a root has none
+                offs = len == 0 ? new int[1] : new int[0];
+            }
+            else
+            {
+                int count = 1;
+                for (int i = rootLength; i < len; i++)
+                {
+                    if (path.charAt(i) == separator)
+                    {
+                        count++;
+                    }
+                }
+                offs = new int[count];
+                offs[0] = rootLength;
+                for (int i = rootLength, n = 1; i < len; i++)
+                {
+                    if (path.charAt(i) == separator)
+                    {
+                        offs[n++] = i + 1;
+                    }
+                }
+            }
+            offsets = offs;
+        }
+        return offs;
+    }
+
+    private int nameEnd(int[] offs, int index)
+    {
+        return index + 1 < offs.length ? offs[index + 1] - 1 : path.length();
+    }
+
     public Path getFileName()
     {
         if (path.length() == 0)
         {
             return this;
         }
-        if (path.length() == getRootLength())
+        int[] offs = offsets();
+        if (offs.length == 0)
         {
             return null;
         }
-        String name = cli.System.IO.Path.GetFileName(path);
-        if (name == null || name.length() == 0)
+        if (offs.length == 1 && rootLength == 0)
         {
-            return null;
+            return this;
         }
-        return new NetPath(fs, name);
+        return new NetPath(fs, path.substring(offs[offs.length - 1]), 0);
     }
 
     public Path getParent()
     {
-        if (path.length() == getRootLength())
+        int[] offs = offsets();
+        if (offs.length == 0 || path.length() == 0)
         {
             return null;
         }
-        String parent = cli.System.IO.Path.GetDirectoryName(path);
-        if (parent == null || parent.length() == 0)
+        if (offs.length == 1)
         {
-            return null;
+            return getRoot();
         }
-        return new NetPath(fs, parent);
+        return new NetPath(fs, path.substring(0, offs[offs.length - 1] - 1), rootLength);
     }
 
     public int getNameCount()
     {
-        int len = getRootLength();
-        if (path.length() == len)
-        {
-            return len == 0 ? 1 : 0;
-        }
-        int count = 1;
-        for (int i = len; i < path.length(); i++)
-        {
-            if (path.charAt(i) == cli.System.IO.Path.DirectorySeparatorChar)
-            {
-                count++;
-            }
-        }
-        return count;
+        return offsets().length;
     }
 
     public Path getName(int index)
     {
-        return new NetPath(fs, getNameImpl(index));
+        int[] offs = offsets();
+        if (index < 0 || index >= offs.length)
+        {
+            throw new IllegalArgumentException();
+        }
+        if (offs.length == 1 && rootLength == 0)
+        {
+            return this;
+        }
+        return new NetPath(fs, path.substring(offs[index], nameEnd(offs, index)), 0);
     }
 
     private String getNameImpl(int index)
     {
-        for (int pos = getRootLength(); pos < path.length(); index--)
-        {
-            int next = path.indexOf(cli.System.IO.Path.DirectorySeparatorChar, pos);
-            if (index == 0)
-            {
-                return next == -1 ? path.substring(pos) : path.substring(pos, next);
-            }
-            if (next == -1)
-            {
-                break;
-            }
-            pos = next + 1;
-        }
-        if (path.length() == 0 && index == 0)
+        int[] offs = offsets();
+        if (index < 0 || index >= offs.length)
         {
-            return "";
+            throw new IllegalArgumentException();
         }
-        throw new IllegalArgumentException();
+        return path.substring(offs[index], nameEnd(offs, index));
+    }
+
+    // compares a name of this path with a name of another path without creating substrings
+    private boolean nameEquals(int index, NetPath other, int otherIndex, boolean ignoreCase)
+    {
+        int[] offs = offsets();
+        int[] ooffs = other.offsets();
+        int start = offs[index];
+        int len = nameEnd(offs, index) - start;
+        int ostart = ooffs[otherIndex];
+        return len == other.nameEnd(ooffs, otherIndex) - ostart
+            && path.regionMatches(ignoreCase, start, other.path, ostart, len);
+    }
+
+    private boolean isName(int[] offs, int index, String name)
+    {
+        int start = offs[index];
+        return nameEnd(offs, index) - start == name.length() && path.startsWith(name, start);
     }
 
     public Path subpath(int beginIndex, int endIndex)
     {
-        StringBuilder sb = new StringBuilder();
-        for (int i = beginIndex; i < endIndex; i++)
+        int[] offs = offsets();
+        if (beginIndex < 0 || beginIndex >= offs.length || endIndex > offs.length || beginIndex >= endIndex)
         {
-            if (i != beginIndex)
-            {
-                sb.append(cli.System.IO.Path.DirectorySeparatorChar);
-            }
-            sb.append(getNameImpl(i));
+            throw new IllegalArgumentException();
         }
-        return new NetPath(fs, sb.toString());
+        if (beginIndex == 0 && endIndex == offs.length && rootLength == 0)
+        {
+            return this;
+        }
+        return new NetPath(fs, path.substring(offs[beginIndex], nameEnd(offs, endIndex - 1)), 0);
     }
 
     public boolean startsWith(Path other)
     {
-        String npath = NetPath.from(other).path;
+        NetPath nother = NetPath.from(other);
+        String npath = nother.path;
         if (npath.length() == 0)
         {
             return path.length() == 0;
         }
         return path.regionMatches(WINDOWS, 0, npath, 0, npath.length())
-            && (npath.length() == getRootLength()
-                || (npath.length() > getRootLength()
+            && (npath.length() == rootLength
+                || (npath.length() > rootLength
                     && (path.length() == npath.length()
-                        || (path.length() > npath.length() && path.charAt(npath.length()) == cli.System.IO.Path.DirectorySeparatorChar))));
+                        || (path.length() > npath.length() && path.charAt(npath.length()) == separator))));
     }
 
     public boolean endsWith(Path other)
@@ -266,11 +343,11 @@ final class NetPath extends AbstractPath
         {
             return false;
         }
-        int otherRootLength = nother.getRootLength();
+        int otherRootLength = nother.rootLength;
         if (otherRootLength > 0)
         {
             if (otherNameCount != nameCount
-                || getRootLength() != otherRootLength
+                || rootLength != otherRootLength
                 || !path.regionMatches(WINDOWS, 0, npath, 0, otherRootLength))
             {
                 return false;
@@ -279,9 +356,7 @@ final class NetPath extends AbstractPath
         int skip = nameCount - otherNameCount;
         for (int i = 0; i < otherNameCount; i++)
         {
-            String s1 = getNameImpl(i + skip);
-            String s2 = nother.getNameImpl(i);
-            if (s1.length() != s2.length() || !s1.regionMatches(WINDOWS, 0, s2, 0, s1.length()))
+            if (!nameEquals(i + skip, nother, i, WINDOWS))
             {
                 return false;
             }
@@ -291,12 +366,24 @@ final class NetPath extends AbstractPath
 
     public Path normalize()
     {
-        int rootLength = getRootLength();
+        int[] offs = offsets();
+        boolean normalized = true;
+        for (int i = 0; i < offs.length; i++)
+        {
+            if (isName(offs, i, ".") || isName(offs, i, ".."))
+            {
+                normalized = false;
+                break;
+            }
+        }
+        if (normalized)
+        {
+            return this;
+        }
         ArrayList<String> list = new ArrayList<>();
-        for (int i = 0, count = getNameCount(); i < count; i++)
+        for (int i = 0; i < offs.length; i++)
         {
-            String s = getNameImpl(i);
-            if (s.equals(".."))
+            if (isName(offs, i, ".."))
             {
                 if (list.size() == 0)
                 {
@@ -314,22 +401,22 @@ final class NetPath extends AbstractPath
                     list.remove(list.size() - 1);
                 }
             }
-            else if (!s.equals("."))
+            else if (!isName(offs, i, "."))
             {
-                list.add(s);
+                list.add(getNameImpl(i));
             }
         }
-        StringBuilder sb = new StringBuilder();
-        sb.append(path.substring(0, getRootLength()));
+        StringBuilder sb = new StringBuilder(path.length());
+        sb.append(path, 0, rootLength);
         for (int i = 0; i < list.size(); i++)
         {
             if (i != 0)
             {
-                sb.append(cli.System.IO.Path.DirectorySeparatorChar);
+                sb.append(separator);
             }
             sb.append(list.get(i));
         }
-        return new NetPath(fs, sb.toString());
+        return new NetPath(fs, sb.toString(), rootLength);
     }
 
     public Path resolve(Path other)
@@ -344,19 +431,24 @@ final class NetPath extends AbstractPath
         {
             return this;
         }
+        if (nother.rootLength == 0)
+        {
+            // the common case, both paths are normalized so the result is too
+            return new NetPath(fs, resolveNameImpl(npath), rootLength);
+        }
         if (WINDOWS)
         {
-            if (nother.getRootLength() == 2 && getRootLength() == 3 && (path.charAt(0) | 0x20) == (npath.charAt(0) | 0x20))
+            if (nother.rootLength == 2 && rootLength == 3 && (path.charAt(0) | 0x20) == (npath.charAt(0) | 0x20))
             {
                 // we're in the case where we have a root "x:\" and other "x:", so we have to chop off "x:" from other because
                 // otherwise Path.Combine will just return other
                 npath = npath.substring(2);
             }
-            else if (nother.getRootLength() == 1 && getRootLength() > 3)
+            else if (nother.rootLength == 1 && rootLength > 3)
             {
                 // we're in the case where we have a root "\\host\share\" and other "\",
                 // we have to manually handle this because Path.Combine doesn't do the right thing
-                return new NetPath(fs, path.substring(0, getRootLength()) + npath);
+                return new NetPath(fs, path.substring(0, rootLength) + npath);
             }
         }
         return new NetPath(fs, cli.System.IO.Path.Combine(path, npath));
@@ -367,37 +459,42 @@ final class NetPath extends AbstractPath
         NetPath nother = NetPath.from(other);
         if (equals(nother))
         {
-            return new NetPath(fs, "");
+            return new NetPath(fs, "", 0);
         }
-        int rootLength = getRootLength();
-        if (nother.getRootLength() != rootLength || !path.regionMatches(true, 0, nother.path, 0, rootLength))
+        if (nother.rootLength != rootLength || !path.regionMatches(true, 0, nother.path, 0, rootLength))
         {
             throw new IllegalArgumentException("'other' has different root");
         }
-        int nameCount = getNameCount();
-        int otherNameCount = nother.getNameCount();
+        // the empty path has one (empty) name, but here it must count as no names
+        int nameCount = path.length() == 0 ? 0 : getNameCount();
+        int otherNameCount = nother.path.length() == 0 ? 0 : nother.getNameCount();
         int count = Math.min(nameCount, otherNameCount);
         int i = 0;
         // skip the common parts
-        for (; i < count && getNameImpl(i).equals(nother.getNameImpl(i)); i++)
+        for (; i < count && nameEquals(i, nother, i, false); i++)
         {
         }
         // remove the unused parts of our path
         StringBuilder sb = new StringBuilder();
         for (int j = i; j < nameCount; j++)
         {
-            sb.append("..\\");
+            if (j != i)
+            {
+                sb.append(separator);
+            }
+            sb.append("..");
         }
         // append the new parts of other
-        for (int j = i; j < otherNameCount; j++)
+        if (i < otherNameCount)
         {
-            if (j != i)
+            if (i < nameCount)
             {
-                sb.append("\\");
+                sb.append(separator);
             }
-            sb.append(nother.getNameImpl(j));
+            int[] ooffs = nother.offsets();
+            sb.append(nother.path, ooffs[i], nother.path.length());
         }
-        return new NetPath(fs, sb.toString());
+        return new NetPath(fs, sb.toString(), 0);
     }
 
     public URI toUri()
@@ -440,7 +537,7 @@ final class NetPath extends AbstractPath
 
     public WatchKey register(WatchService watcher, WatchEvent.Kind<?>[] events, WatchEvent.Modifier... modifiers) throws IOException
     {
-        if (!(watcher instanceof NetFileSystem.NetWatchService))
+        if (!(watcher instanceof NetFileSystem.NetWatchService) && !(watcher instanceof NetInotifyWatchService))
         {
             // null check
             watcher.getClass();
@@ -506,6 +603,10 @@ final class NetPath extends AbstractPath
                 sm.checkRead(path + cli.System.IO.Path.DirectorySeparatorChar + '-');
             }
         }
+        if (watcher instanceof NetInotifyWatchService)
+        {
+            return ((NetInotifyWatchService)watcher).register(this, events, modifiers);
+        }
         return ((NetFileSystem.NetWatchService)watcher).register(this, create, delete, modify, overflow, subtree);
     }
 
@@ -529,21 +630,35 @@ final class NetPath extends AbstractPath
 
     public boolean equals(Object other)
     {
+        if (other == this)
+        {
+            return true;
+        }
         if (!(other instanceof NetPath))
         {
             return false;
         }
-        return compareTo((NetPath)other) == 0;
+        NetPath nother = (NetPath)other;
+        if (nother.path.length() != path.length()
+            || (hash != 0 && nother.hash != 0 && hash != nother.hash))
+        {
+            return false;
+        }
+        return compareTo(nother) == 0;
     }
 
     public int hashCode()
     {
-        int hash = 0;
-        for (int i = 0; i < path.length(); i++)
+        int h = hash;
+        if (h == 0)
         {
-            hash = 97 * hash + Character.toUpperCase(path.charAt(i));
+            for (int i = 0; i < path.length(); i++)
+            {
+                h = 97 * h + Character.toUpperCase(path.charAt(i));
+            }
+            hash = h;
         }
-        return hash;
+        return h;
     }
 
     public String toString()
@@ -553,7 +668,31 @@ final class NetPath extends AbstractPath
 
     boolean isUnc()
     {
-        return WINDOWS && getRootLength() > 3;
+        return WINDOWS && rootLength > 3;
+    }
+
+    // a path returned by a DirectoryStream that carries the attributes that were
+    // captured while enumerating the directory (used by FileTreeWalker)
+    static final class NetPathWithAttributes extends NetPath implements BasicFileAttributesHolder
+    {
+        private volatile BasicFileAttributes attrs;
+
+        // name is the name of an entry in dir
+        NetPathWithAttributes(NetPath dir, String name, BasicFileAttributes attrs)
+        {
+            super(dir.fs, dir.resolveNameImpl(name), dir.rootLength);
+            this.attrs = attrs;
+        }
+
+        public BasicFileAttributes get()
+        {
+            return attrs;
+        }
+
+        public void invalidate()
+        {
+            attrs = null;
+        }
     }
 
     static NetPath from(Path path)
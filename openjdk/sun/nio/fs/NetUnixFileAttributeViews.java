@@ -0,0 +1,269 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package sun.nio.fs;
+
+import java.io.IOException;
+import java.nio.file.ProviderMismatchException;
+import java.nio.file.attribute.*;
+import java.util.Map;
+import java.util.Set;
+
+// the "posix" and "unix" views, every read is a single NetUnixFileAttributes.get call
+final class NetUnixFileAttributeViews
+{
+    private NetUnixFileAttributeViews() { }
+
+    static class Posix extends AbstractBasicFileAttributeView implements PosixFileAttributeView
+    {
+        private static final String PERMISSIONS_NAME = "permissions";
+        private static final String OWNER_NAME = "owner";
+        private static final String GROUP_NAME = "group";
+        static final Set<String> posixAttributeNames = Util.newSet(basicAttributeNames, PERMISSIONS_NAME, OWNER_NAME, GROUP_NAME);
+
+        final String path;
+        final boolean followLinks;
+        // file times are set through the basic view of the provider
+        private final BasicFileAttributeView basic;
+
+        Posix(String path, boolean followLinks, BasicFileAttributeView basic)
+        {
+            this.path = path;
+            this.followLinks = followLinks;
+            this.basic = basic;
+        }
+
+        final void checkReadExtended()
+        {
+            SecurityManager sm = System.getSecurityManager();
+            if (sm != null)
+            {
+                sm.checkRead(path);
+                sm.checkPermission(new RuntimePermission("accessUserInformation"));
+            }
+        }
+
+        final void checkWriteExtended()
+        {
+            SecurityManager sm = System.getSecurityManager();
+            if (sm != null)
+            {
+                sm.checkWrite(path);
+                sm.checkPermission(new RuntimePermission("accessUserInformation"));
+            }
+        }
+
+        public String name()
+        {
+            return "posix";
+        }
+
+        @SuppressWarnings("unchecked")
+        public void setAttribute(String attribute, Object value) throws IOException
+        {
+            switch (attribute)
+            {
+                case PERMISSIONS_NAME:
+                    setPermissions((Set<PosixFilePermission>)value);
+                    break;
+                case OWNER_NAME:
+                    setOwner((UserPrincipal)value);
+                    break;
+                case GROUP_NAME:
+                    setGroup((GroupPrincipal)value);
+                    break;
+                default:
+                    super.setAttribute(attribute, value);
+                    break;
+            }
+        }
+
+        final void addRequestedPosixAttributes(PosixFileAttributes attrs, AttributesBuilder builder)
+        {
+            addRequestedBasicAttributes(attrs, builder);
+            if (builder.match(PERMISSIONS_NAME))
+            {
+                builder.add(PERMISSIONS_NAME, attrs.permissions());
+            }
+            if (builder.match(OWNER_NAME))
+            {
+                builder.add(OWNER_NAME, attrs.owner());
+            }
+            if (builder.match(GROUP_NAME))
+            {
+                builder.add(GROUP_NAME, attrs.group());
+            }
+        }
+
+        public Map<String,Object> readAttributes(String[] requested) throws IOException
+        {
+            AttributesBuilder builder = AttributesBuilder.create(posixAttributeNames, requested);
+            addRequestedPosixAttributes(readAttributes(), builder);
+            return builder.unmodifiableMap();
+        }
+
+        public NetUnixFileAttributes readAttributes() throws IOException
+        {
+            checkReadExtended();
+            return NetUnixFileAttributes.get(path, followLinks);
+        }
+
+        public void setTimes(FileTime lastModifiedTime, FileTime lastAccessTime, FileTime createTime) throws IOException
+        {
+            basic.setTimes(lastModifiedTime, lastAccessTime, createTime);
+        }
+
+        final void setMode(int mode) throws IOException
+        {
+            checkWriteExtended();
+            NetUnixFileAttributes.setMode(path, mode);
+        }
+
+        final void setOwners(int uid, int gid) throws IOException
+        {
+            checkWriteExtended();
+            NetUnixFileAttributes.setOwners(path, uid, gid, followLinks);
+        }
+
+        public void setPermissions(Set<PosixFilePermission> perms) throws IOException
+        {
+            setMode(NetUnixFileAttributes.toMode(perms));
+        }
+
+        public void setOwner(UserPrincipal owner) throws IOException
+        {
+            if (owner == null)
+            {
+                throw new NullPointerException("'owner' is null");
+            }
+            if (!(owner instanceof NetUnixUserPrincipals.User))
+            {
+                throw new ProviderMismatchException();
+            }
+            if (owner instanceof NetUnixUserPrincipals.Group)
+            {
+                throw new IOException("'owner' parameter can't be a group");
+            }
+            setOwners(((NetUnixUserPrincipals.User)owner).uid(), -1);
+        }
+
+        public UserPrincipal getOwner() throws IOException
+        {
+            return readAttributes().owner();
+        }
+
+        public void setGroup(GroupPrincipal group) throws IOException
+        {
+            if (group == null)
+            {
+                throw new NullPointerException("'group' is null");
+            }
+            if (!(group instanceof NetUnixUserPrincipals.Group))
+            {
+                throw new ProviderMismatchException();
+            }
+            setOwners(-1, ((NetUnixUserPrincipals.Group)group).gid());
+        }
+    }
+
+    static final class Unix extends Posix
+    {
+        private static final String MODE_NAME = "mode";
+        private static final String INO_NAME = "ino";
+        private static final String DEV_NAME = "dev";
+        private static final String RDEV_NAME = "rdev";
+        private static final String NLINK_NAME = "nlink";
+        private static final String UID_NAME = "uid";
+        private static final String GID_NAME = "gid";
+        private static final String CTIME_NAME = "ctime";
+        static final Set<String> unixAttributeNames = Util.newSet(posixAttributeNames,
+            MODE_NAME, INO_NAME, DEV_NAME, RDEV_NAME, NLINK_NAME, UID_NAME, GID_NAME, CTIME_NAME);
+
+        Unix(String path, boolean followLinks, BasicFileAttributeView basic)
+        {
+            super(path, followLinks, basic);
+        }
+
+        public String name()
+        {
+            return "unix";
+        }
+
+        public void setAttribute(String attribute, Object value) throws IOException
+        {
+            switch (attribute)
+            {
+                case MODE_NAME:
+                    setMode((Integer)value);
+                    break;
+                case UID_NAME:
+                    setOwners((Integer)value, -1);
+                    break;
+                case GID_NAME:
+                    setOwners(-1, (Integer)value);
+                    break;
+                default:
+                    super.setAttribute(attribute, value);
+                    break;
+            }
+        }
+
+        public Map<String,Object> readAttributes(String[] requested) throws IOException
+        {
+            AttributesBuilder builder = AttributesBuilder.create(unixAttributeNames, requested);
+            NetUnixFileAttributes attrs = readAttributes();
+            addRequestedPosixAttributes(attrs, builder);
+            if (builder.match(MODE_NAME))
+            {
+                builder.add(MODE_NAME, attrs.mode());
+            }
+            if (builder.match(INO_NAME))
+            {
+                builder.add(INO_NAME, attrs.ino());
+            }
+            if (builder.match(DEV_NAME))
+            {
+                builder.add(DEV_NAME, attrs.dev());
+            }
+            if (builder.match(RDEV_NAME))
+            {
+                builder.add(RDEV_NAME, attrs.rdev());
+            }
+            if (builder.match(NLINK_NAME))
+            {
+                builder.add(NLINK_NAME, attrs.nlink());
+            }
+            if (builder.match(UID_NAME))
+            {
+                builder.add(UID_NAME, attrs.uid());
+            }
+            if (builder.match(GID_NAME))
+            {
+                builder.add(GID_NAME, attrs.gid());
+            }
+            if (builder.match(CTIME_NAME))
+            {
+                builder.add(CTIME_NAME, attrs.ctime());
+            }
+            return builder.unmodifiableMap();
+        }
+    }
+}
@@ -0,0 +1,361 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package sun.nio.fs;
+
+import cli.System.BitConverter;
+import cli.System.Runtime.InteropServices.DllImportAttribute;
+import cli.System.Runtime.InteropServices.Marshal;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import static ikvm.internal.Util.MACOSX;
+import static ikvm.internal.Util.WINDOWS;
+
+// POSIX file attributes for Linux, all fields are filled by a single statx(2) call
+final class NetUnixFileAttributes implements PosixFileAttributes
+{
+    private static final int AT_FDCWD = -100;
+    private static final int AT_SYMLINK_NOFOLLOW = 0x100;
+    private static final int STATX_BASIC_STATS = 0x7ff;
+    private static final int STATX_BTIME = 0x800;
+    private static final int STATX_SIZE = 256;
+
+    private static final int ENOENT = 2;
+    private static final int EPERM = 1;
+    private static final int EACCES = 13;
+    private static final int EEXIST = 17;
+    private static final int ENOSYS = 38;
+    private static final int ELOOP = 40;
+
+    static final int S_IFMT   = 0170000;
+    static final int S_IFREG  = 0100000;
+    static final int S_IFDIR  = 0040000;
+    static final int S_IFLNK  = 0120000;
+    static final int S_IRUSR  = 0000400;
+    static final int S_IWUSR  = 0000200;
+    static final int S_IXUSR  = 0000100;
+    static final int S_IRGRP  = 0000040;
+    static final int S_IWGRP  = 0000020;
+    static final int S_IXGRP  = 0000010;
+    static final int S_IROTH  = 0000004;
+    static final int S_IWOTH  = 0000002;
+    static final int S_IXOTH  = 0000001;
+    static final int S_IAMB   = 0000777;
+
+    private static final boolean supported = probe();
+
+    private final int mask;
+    private final int mode;
+    private final long ino;
+    private final long dev;
+    private final long rdev;
+    private final int nlink;
+    private final int uid;
+    private final int gid;
+    private final long size;
+    private final long atimeSec;
+    private final int atimeNsec;
+    private final long btimeSec;
+    private final int btimeNsec;
+    private final long ctimeSec;
+    private final int ctimeNsec;
+    private final long mtimeSec;
+    private final int mtimeNsec;
+
+    private NetUnixFileAttributes(byte[] buf)
+    {
+        mask = BitConverter.ToInt32(buf, 0);
+        nlink = BitConverter.ToInt32(buf, 16);
+        uid = BitConverter.ToInt32(buf, 20);
+        gid = BitConverter.ToInt32(buf, 24);
+        mode = BitConverter.ToUInt16(buf, 28);
+        ino = BitConverter.ToInt64(buf, 32);
+        size = BitConverter.ToInt64(buf, 40);
+        atimeSec = BitConverter.ToInt64(buf, 64);
+        atimeNsec = BitConverter.ToInt32(buf, 72);
+        btimeSec = BitConverter.ToInt64(buf, 80);
+        btimeNsec = BitConverter.ToInt32(buf, 88);
+        ctimeSec = BitConverter.ToInt64(buf, 96);
+        ctimeNsec = BitConverter.ToInt32(buf, 104);
+        mtimeSec = BitConverter.ToInt64(buf, 112);
+        mtimeNsec = BitConverter.ToInt32(buf, 120);
+        rdev = makedev(BitConverter.ToInt32(buf, 128), BitConverter.ToInt32(buf, 132));
+        dev = makedev(BitConverter.ToInt32(buf, 136), BitConverter.ToInt32(buf, 140));
+    }
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int statx(int dirfd, String pathname, int flags, int mask, byte[] statxbuf);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int chmod(String pathname, int mode);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int chown(String pathname, int owner, int group);
+
+    @DllImportAttribute.Annotation(value="libc", SetLastError=true)
+    private static native int lchown(String pathname, int owner, int group);
+
+    // glibc's gnu_dev_makedev
+    private static long makedev(int major, int minor)
+    {
+        long maj = major & 0xffffffffL;
+        long min = minor & 0xffffffffL;
+        return ((maj & 0xfff) << 8) | ((maj & ~0xfffL) << 32) | (min & 0xff) | ((min & ~0xffL) << 12);
+    }
+
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    private static boolean probe()
+    {
+        if (WINDOWS || MACOSX)
+        {
+            return false;
+        }
+        try
+        {
+            if (false) throw new cli.System.DllNotFoundException();
+            if (false) throw new cli.System.EntryPointNotFoundException();
+            return statx(AT_FDCWD, "/", 0, STATX_BASIC_STATS, new byte[STATX_SIZE]) == 0
+                || Marshal.GetLastWin32Error() != ENOSYS;
+        }
+        catch (cli.System.DllNotFoundException | cli.System.EntryPointNotFoundException _)
+        {
+            // glibc older than 2.28 does not export statx
+            return false;
+        }
+    }
+
+    static boolean isSupported()
+    {
+        return supported;
+    }
+
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    static NetUnixFileAttributes get(String path, boolean followLinks) throws IOException
+    {
+        byte[] buf = new byte[STATX_SIZE];
+        if (statx(AT_FDCWD, path, followLinks ? 0 : AT_SYMLINK_NOFOLLOW, STATX_BASIC_STATS | STATX_BTIME, buf) != 0)
+        {
+            throw translate(Marshal.GetLastWin32Error(), path);
+        }
+        return new NetUnixFileAttributes(buf);
+    }
+
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    static void setMode(String path, int mode) throws IOException
+    {
+        int rc = chmod(path, mode);
+        int errno = Marshal.GetLastWin32Error();
+        NetAttributeCache.invalidate(path);
+        if (rc != 0)
+        {
+            throw translate(errno, path);
+        }
+    }
+
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    static void setOwners(String path, int uid, int gid, boolean followLinks) throws IOException
+    {
+        int rc = followLinks ? chown(path, uid, gid) : lchown(path, uid, gid);
+        int errno = Marshal.GetLastWin32Error();
+        NetAttributeCache.invalidate(path);
+        if (rc != 0)
+        {
+            throw translate(errno, path);
+        }
+    }
+
+    static IOException translate(int errno, String path)
+    {
+        switch (errno)
+        {
+            case ENOENT:
+                return new NoSuchFileException(path);
+            case EPERM:
+            case EACCES:
+                return new AccessDeniedException(path);
+            case EEXIST:
+                return new FileAlreadyExistsException(path);
+            case ELOOP:
+                return new FileSystemException(path, null, "Too many levels of symbolic links");
+            default:
+                return new FileSystemException(path, null, "errno " + errno);
+        }
+    }
+
+    private static FileTime toFileTime(long sec, int nsec)
+    {
+        return FileTime.from(sec * 1000000L + (nsec & 0xffffffffL) / 1000, TimeUnit.MICROSECONDS);
+    }
+
+    int mode()          { return mode; }
+    long ino()          { return ino; }
+    long dev()          { return dev; }
+    long rdev()         { return rdev; }
+    int nlink()         { return nlink; }
+    int uid()           { return uid; }
+    int gid()           { return gid; }
+
+    FileTime ctime()
+    {
+        return toFileTime(ctimeSec, ctimeNsec);
+    }
+
+    boolean isDevice()
+    {
+        int type = mode & S_IFMT;
+        return type == 0020000 || type == 0060000 || type == 0010000;
+    }
+
+    public FileTime lastModifiedTime()
+    {
+        return toFileTime(mtimeSec, mtimeNsec);
+    }
+
+    public FileTime lastAccessTime()
+    {
+        return toFileTime(atimeSec, atimeNsec);
+    }
+
+    public FileTime creationTime()
+    {
+        // not all file systems record the birth time
+        return (mask & STATX_BTIME) != 0 ? toFileTime(btimeSec, btimeNsec) : lastModifiedTime();
+    }
+
+    public boolean isRegularFile()
+    {
+        return (mode & S_IFMT) == S_IFREG;
+    }
+
+    public boolean isDirectory()
+    {
+        return (mode & S_IFMT) == S_IFDIR;
+    }
+
+    public boolean isSymbolicLink()
+    {
+        return (mode & S_IFMT) == S_IFLNK;
+    }
+
+    public boolean isOther()
+    {
+        int type = mode & S_IFMT;
+        return type != S_IFREG && type != S_IFDIR && type != S_IFLNK;
+    }
+
+    public long size()
+    {
+        return size;
+    }
+
+    public Object fileKey()
+    {
+        return new FileKey(dev, ino);
+    }
+
+    public UserPrincipal owner()
+    {
+        return NetUnixUserPrincipals.fromUid(uid);
+    }
+
+    public GroupPrincipal group()
+    {
+        return NetUnixUserPrincipals.fromGid(gid);
+    }
+
+    public Set<PosixFilePermission> permissions()
+    {
+        Set<PosixFilePermission> perms = new HashSet<>();
+        if ((mode & S_IRUSR) != 0) perms.add(PosixFilePermission.OWNER_READ);
+        if ((mode & S_IWUSR) != 0) perms.add(PosixFilePermission.OWNER_WRITE);
+        if ((mode & S_IXUSR) != 0) perms.add(PosixFilePermission.OWNER_EXECUTE);
+        if ((mode & S_IRGRP) != 0) perms.add(PosixFilePermission.GROUP_READ);
+        if ((mode & S_IWGRP) != 0) perms.add(PosixFilePermission.GROUP_WRITE);
+        if ((mode & S_IXGRP) != 0) perms.add(PosixFilePermission.GROUP_EXECUTE);
+        if ((mode & S_IROTH) != 0) perms.add(PosixFilePermission.OTHERS_READ);
+        if ((mode & S_IWOTH) != 0) perms.add(PosixFilePermission.OTHERS_WRITE);
+        if ((mode & S_IXOTH) != 0) perms.add(PosixFilePermission.OTHERS_EXECUTE);
+        return perms;
+    }
+
+    static int toMode(Set<PosixFilePermission> perms)
+    {
+        int mode = 0;
+        for (PosixFilePermission perm : perms)
+        {
+            // null check
+            perm.getClass();
+            switch (perm)
+            {
+                case OWNER_READ:     mode |= S_IRUSR; break;
+                case OWNER_WRITE:    mode |= S_IWUSR; break;
+                case OWNER_EXECUTE:  mode |= S_IXUSR; break;
+                case GROUP_READ:     mode |= S_IRGRP; break;
+                case GROUP_WRITE:    mode |= S_IWGRP; break;
+                case GROUP_EXECUTE:  mode |= S_IXGRP; break;
+                case OTHERS_READ:    mode |= S_IROTH; break;
+                case OTHERS_WRITE:   mode |= S_IWOTH; break;
+                case OTHERS_EXECUTE: mode |= S_IXOTH; break;
+            }
+        }
+        return mode;
+    }
+
+    static final class FileKey
+    {
+        private final long dev;
+        private final long ino;
+
+        FileKey(long dev, long ino)
+        {
+            this.dev = dev;
+            this.ino = ino;
+        }
+
+        public int hashCode()
+        {
+            return (int)(dev ^ (dev >>> 32)) + (int)(ino ^ (ino >>> 32));
+        }
+
+        public boolean equals(Object obj)
+        {
+            if (obj == this)
+            {
+                return true;
+            }
+            if (!(obj instanceof FileKey))
+            {
+                return false;
+            }
+            FileKey other = (FileKey)obj;
+            return dev == other.dev && ino == other.ino;
+        }
+
+        public String toString()
+        {
+            return "(dev=" + Long.toHexString(dev) + ",ino=" + ino + ')';
+        }
+    }
+}
@@ -0,0 +1,228 @@
+/*
+  Copyright (C) 2026 IKVM.NET contributors
+
+  This software is provided 'as-is', without any express or implied
+  warranty.  In no event will the authors be held liable for any damages
+  arising from the use of this software.
+
+  Permission is granted to anyone to use this software for any purpose,
+  including commercial applications, and to alter it and redistribute it
+  freely, subject to the following restrictions:
+
+  1. The origin of this software must not be misrepresented; you must not
+     claim that you wrote the original software. If you use this software
+     in a product, an acknowledgment in the product documentation would be
+     appreciated but is not required.
+  2. Altered source versions must be plainly marked as such, and must not be
+     misrepresented as being the original software.
+  3. This notice may not be removed or altered from any source distribution.
+
+*/
+
+package sun.nio.fs;
+
+import cli.System.IntPtr;
+import cli.System.Runtime.InteropServices.DllImportAttribute;
+import cli.System.Runtime.InteropServices.Marshal;
+import java.io.IOException;
+import java.nio.file.attribute.*;
+
+// user and group principals for NetUnixFileAttributes, names are resolved with the
+// reentrant getpw*_r / getgr*_r functions
+final class NetUnixUserPrincipals
+{
+    private static final int ERANGE = 34;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+    private static final int MAX_BUFFER_SIZE = 1024 * 1024;
+    // struct passwd and struct group both start with two pointers followed by the id
+    private static final int STRUCT_SIZE = 64;
+    private static final int ID_OFFSET = 2 * IntPtr.get_Size();
+
+    private NetUnixUserPrincipals() { }
+
+    @DllImportAttribute.Annotation(value="libc")
+    private static native int getpwuid_r(int uid, IntPtr pwd, IntPtr buf, IntPtr buflen, IntPtr result);
+
+    @DllImportAttribute.Annotation(value="libc")
+    private static native int getgrgid_r(int gid, IntPtr grp, IntPtr buf, IntPtr buflen, IntPtr result);
+
+    @DllImportAttribute.Annotation(value="libc")
+    private static native int getpwnam_r(String name, IntPtr pwd, IntPtr buf, IntPtr buflen, IntPtr result);
+
+    @DllImportAttribute.Annotation(value="libc")
+    private static native int getgrnam_r(String name, IntPtr grp, IntPtr buf, IntPtr buflen, IntPtr result);
+
+    static class User implements UserPrincipal
+    {
+        private final int id;
+        private final boolean isGroup;
+        private final String name;
+
+        User(int id, boolean isGroup, String name)
+        {
+            this.id = id;
+            this.isGroup = isGroup;
+            this.name = name;
+        }
+
+        int uid()
+        {
+            if (isGroup)
+            {
+                throw new AssertionError();
+            }
+            return id;
+        }
+
+        int gid()
+        {
+            if (!isGroup)
+            {
+                throw new AssertionError();
+            }
+            return id;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String toString()
+        {
+            return name;
+        }
+
+        public boolean equals(Object obj)
+        {
+            if (obj == this)
+            {
+                return true;
+            }
+            if (!(obj instanceof User))
+            {
+                return false;
+            }
+            User other = (User)obj;
+            return id == other.id && isGroup == other.isGroup && name.equals(other.name);
+        }
+
+        public int hashCode()
+        {
+            return id != -1 ? id : name.hashCode();
+        }
+    }
+
+    static final class Group extends User implements GroupPrincipal
+    {
+        Group(int id, String name)
+        {
+            super(id, true, name);
+        }
+    }
+
+    // the name is the numeric id when there is no matching entry
+    static User fromUid(int uid)
+    {
+        String name = lookup(uid, null, false);
+        return new User(uid, false, name != null ? name : Integer.toString(uid));
+    }
+
+    static Group fromGid(int gid)
+    {
+        String name = lookup(gid, null, true);
+        return new Group(gid, name != null ? name : Integer.toString(gid));
+    }
+
+    static UserPrincipal lookupUser(String name) throws IOException
+    {
+        return new User(lookupId(name, false), false, name);
+    }
+
+    static GroupPrincipal lookupGroup(String name) throws IOException
+    {
+        return new Group(lookupId(name, true), name);
+    }
+
+    private static int lookupId(String name, boolean group) throws IOException
+    {
+        SecurityManager sm = System.getSecurityManager();
+        if (sm != null)
+        {
+            sm.checkPermission(new RuntimePermission("lookupUserInformation"));
+        }
+        String id = lookup(0, name, group);
+        if (id == null)
+        {
+            try
+            {
+                return Integer.parseInt(name);
+            }
+            catch (NumberFormatException _)
+            {
+                throw new UserPrincipalNotFoundException(name);
+            }
+        }
+        return Integer.parseInt(id);
+    }
+
+    // resolves an id to a name (when name is null) or a name to an id,
+    // returns null when there is no matching entry
+    @cli.System.Security.SecuritySafeCriticalAttribute.Annotation
+    private static String lookup(int id, String name, boolean group)
+    {
+        int size = INITIAL_BUFFER_SIZE;
+        for (;;)
+        {
+            IntPtr entry = Marshal.AllocHGlobal(STRUCT_SIZE);
+            IntPtr buf = Marshal.AllocHGlobal(size);
+            IntPtr result = Marshal.AllocHGlobal(IntPtr.get_Size());
+            try
+            {
+                IntPtr len = IntPtr.op_Explicit((long)size);
+                int rc;
+                if (name == null)
+                {
+                    rc = group ? getgrgid_r(id, entry, buf, len, result) : getpwuid_r(id, entry, buf, len, result);
+                }
+                else
+                {
+                    rc = group ? getgrnam_r(name, entry, buf, len, result) : getpwnam_r(name, entry, buf, len, result);
+                }
+                if (rc == ERANGE && size < MAX_BUFFER_SIZE)
+                {
+                    size *= 2;
+                    continue;
+                }
+                if (rc != 0 || Marshal.ReadIntPtr(result).ToInt64() == 0)
+                {
+                    return null;
+                }
+                if (name == null)
+                {
+                    return Marshal.PtrToStringAnsi(Marshal.ReadIntPtr(entry));
+                }
+                return Integer.toString(Marshal.ReadInt32(entry, ID_OFFSET));
+            }
+            finally
+            {
+                Marshal.FreeHGlobal(result);
+                Marshal.FreeHGlobal(buf);
+                Marshal.FreeHGlobal(entry);
+            }
+        }
+    }
+
+    static final UserPrincipalLookupService lookupService = new UserPrincipalLookupService()
+    {
+        public UserPrincipal lookupPrincipalByName(String name) throws IOException
+        {
+            return lookupUser(name);
+        }
+
+        public GroupPrincipal lookupPrincipalByGroupName(String group) throws IOException
+        {
+            return lookupGroup(group);
+        }
+    };
+}
@@ -527,6 +527,58 @@ namespace IKVM.NativeCode.sun.nio.ch
 				: -1;
 		}
 
+		// Linux values, callers must check Net.isReusePortAvailable() first
+		private const int SOL_SOCKET = 1;
+		private const int SO_REUSEPORT = 15;
+
+		[System.Runtime.InteropServices.DllImport("libc", SetLastError = true)]
+		private static extern int setsockopt(int socket, int level, int optname, ref int optval, int optlen);
+
+		[System.Runtime.InteropServices.DllImport("libc", SetLastError = true)]
+		private static extern int getsockopt(int socket, int level, int optname, ref int optval, ref int optlen);
+
+		[System.Security.SecuritySafeCritical]
+		public static void setReusePort0(FileDescriptor fd, bool on)
+		{
+#if !FIRST_PASS
+			try
+			{
+				int value = on ? 1 : 0;
+				if (setsockopt(fd.getSocket().Handle.ToInt32(), SOL_SOCKET, SO_REUSEPORT, ref value, 4) != 0)
+				{
+					throw new global::java.net.SocketException("setsockopt(SO_REUSEPORT) failed, errno " + System.Runtime.InteropServices.Marshal.GetLastWin32Error());
+				}
+			}
+			catch (ObjectDisposedException)
+			{
+				throw new global::java.net.SocketException("Socket is closed");
+			}
+#endif
+		}
+
+		[System.Security.SecuritySafeCritical]
+		public static bool getReusePort0(FileDescriptor fd)
+		{
+#if FIRST_PASS
+			return false;
+#else
+			try
+			{
+				int value = 0;
+				int len = 4;
+				if (getsockopt(fd.getSocket().Handle.ToInt32(), SOL_SOCKET, SO_REUSEPORT, ref value, ref len) != 0)
+				{
+					throw new global::java.net.SocketException("getsockopt(SO_REUSEPORT) failed, errno " + System.Runtime.InteropServices.Marshal.GetLastWin32Error());
+				}
+				return value != 0;
+			}
+			catch (ObjectDisposedException)
+			{
+				throw new global::java.net.SocketException("Socket is closed");
+			}
+#endif
+		}
+
 		public static bool canIPv6SocketJoinIPv4Group0()
 		{
 			return false;